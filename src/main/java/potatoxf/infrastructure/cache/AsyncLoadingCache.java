@@ -0,0 +1,416 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.CounterForInquireDelegate;
+import potatoxf.infrastructure.tools.CounterForOperate;
+import potatoxf.infrastructure.tools.CounterForOperateDelegate;
+import potatoxf.infrastructure.tools.InterveningSequence;
+import potatoxf.infrastructure.tools.TimeTicker;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 异步加载缓存，缓存的是 {@link CompletableFuture}。
+ * <p>
+ * 未命中时先将未完成的 {@link CompletableFuture} 放入缓存再开始加载，同一个键的并发调用共享同一次加载。
+ * 加载失败或加载结果为null时条目会被移除，之后的调用会重新加载。
+ * {@link #getAll(Iterable)} 将所有缺失的键合并为一次 {@link CacheLoader#asyncLoadAll} 调用。
+ * 命中与未命中通过 {@link CounterForInquire} 统计，加载耗时与失败通过 {@link CounterForOperate} 统计。
+ * <p>
+ * 设置写入后刷新时间后，读取到超过刷新时间的条目会立即返回当前值，并在后台重新加载一次。
+ * 重新加载失败时，下一次尝试的时间按 {@link InterveningSequence} 推迟，序列停止后该条目不再刷新。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class AsyncLoadingCache<K, V> implements CounterForInquireDelegate, CounterForOperateDelegate {
+    /*
+     * Every future created by this cache is a RefreshableFuture that carries the refresh state of its
+     * entry: the time after which a read triggers a refresh, a flag that admits a single in-flight
+     * refresh, and the backoff execution of consecutive failures. A reader only compares the time and
+     * tries a CAS on the flag, so it never blocks and never waits for the reload.
+     *
+     * A successful reload installs a new future with Cache.replace(), which fails harmlessly if the
+     * entry was invalidated or overwritten meanwhile. A failed reload keeps the current value and
+     * moves the refresh time by the next interval of the InterveningSequence, then releases the flag.
+     * When the sequence stops, the flag is never released and the entry stays as it is until it is
+     * evicted, expires or is overwritten.
+     */
+
+    private final Cache<K, CompletableFuture<V>> cache;
+    private final CacheLoader<? super K, V> loader;
+    private final Executor executor;
+    private final TimeTicker ticker;
+    private final CounterForInquire counterForInquire;
+    private final CounterForOperate counterForOperate;
+    private final long refreshAfterWrite;
+    private final InterveningSequence refreshBackoff;
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param loader      缓存加载器
+     */
+    public AsyncLoadingCache(long maximumSize, CacheLoader<? super K, V> loader) {
+        this(new BoundedCache<>(maximumSize, WeigherForTwain.singleton(), CounterForInquire.DISABLE), loader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param cache    保存加载结果的缓存
+     * @param loader   缓存加载器
+     * @param executor 加载使用的执行器
+     */
+    public AsyncLoadingCache(Cache<K, CompletableFuture<V>> cache, CacheLoader<? super K, V> loader, Executor executor) {
+        this(cache, loader, executor, TimeTicker.systemTicker(), CounterForInquire.of(), CounterForOperate.of());
+    }
+
+    /**
+     * @param cache             保存加载结果的缓存
+     * @param loader            缓存加载器
+     * @param executor          加载使用的执行器
+     * @param ticker            加载计时使用的时间源
+     * @param counterForInquire 命中统计器
+     * @param counterForOperate 加载统计器
+     */
+    public AsyncLoadingCache(Cache<K, CompletableFuture<V>> cache, CacheLoader<? super K, V> loader, Executor executor,
+                             TimeTicker ticker, CounterForInquire counterForInquire, CounterForOperate counterForOperate) {
+        this(cache, loader, executor, ticker, counterForInquire, counterForOperate, 0L, InterveningSequence.exponential());
+    }
+
+    /**
+     * @param cache             保存加载结果的缓存
+     * @param loader            缓存加载器
+     * @param executor          加载使用的执行器
+     * @param ticker            纳秒时间源，用于加载计时和刷新
+     * @param counterForInquire 命中统计器
+     * @param counterForOperate 加载统计器
+     * @param refreshAfterWrite 写入后刷新时间，纳秒，0表示不刷新
+     * @param refreshBackoff    重新加载失败后的重试间隔序列
+     */
+    public AsyncLoadingCache(Cache<K, CompletableFuture<V>> cache, CacheLoader<? super K, V> loader, Executor executor,
+                             TimeTicker ticker, CounterForInquire counterForInquire, CounterForOperate counterForOperate,
+                             long refreshAfterWrite, InterveningSequence refreshBackoff) {
+        Arg.check(refreshAfterWrite >= 0, () -> "The refresh time must greater then or equal 0,but the value is '" + refreshAfterWrite + "'");
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.refreshBackoff = Objects.requireNonNull(refreshBackoff, "The refresh backoff must be not null");
+        this.cache = Objects.requireNonNull(cache, "The cache must be not null");
+        this.loader = Objects.requireNonNull(loader, "The loader must be not null");
+        this.executor = Objects.requireNonNull(executor, "The executor must be not null");
+        this.ticker = Objects.requireNonNull(ticker, "The ticker must be not null");
+        this.counterForInquire = Objects.requireNonNull(counterForInquire, "The counter must be not null");
+        this.counterForOperate = Objects.requireNonNull(counterForOperate, "The counter must be not null");
+    }
+
+    /**
+     * 获取代理 {@link CounterForInquire}
+     *
+     * @return 返回代理{@link CounterForInquire}
+     */
+    @Override
+    public CounterForInquire delegateCounterForInquire() {
+        return counterForInquire;
+    }
+
+    /**
+     * 获取代理 {@link CounterForOperate}
+     *
+     * @return 返回代理{@link CounterForOperate}
+     */
+    @Override
+    public CounterForOperate delegateCounterForOperate() {
+        return counterForOperate;
+    }
+
+    /**
+     * 获取键对应的值，如果不存在则加载，正在加载中的键直接返回加载中的结果
+     *
+     * @param key 键
+     * @return 返回加载结果
+     */
+    public CompletableFuture<V> get(K key) {
+        Objects.requireNonNull(key, "The key must be not null");
+        CompletableFuture<V> future = cache.get(key);
+        if (future != null) {
+            counterForInquire.recordHit(1);
+            refreshIfNeeded(key, future);
+            return future;
+        }
+        RefreshableFuture<V> created = new RefreshableFuture<>();
+        future = cache.putIfAbsent(key, created);
+        if (future != null) {
+            counterForInquire.recordHit(1);
+            refreshIfNeeded(key, future);
+            return future;
+        }
+        counterForInquire.recordMiss(1);
+        load(key, created);
+        return created;
+    }
+
+    /**
+     * 批量获取键对应的值，所有缺失的键通过一次 {@link CacheLoader#asyncLoadAll} 加载，
+     * 缺失的键在加载前就已放入缓存，并发调用会共享这次加载。加载器返回的其他键会被忽略
+     *
+     * @param keys 键
+     * @return 返回键与值的映射，不包含不存在的键，任意一个键加载失败时整体失败
+     */
+    public CompletableFuture<Map<K, V>> getAll(Iterable<? extends K> keys) {
+        Objects.requireNonNull(keys, "The keys must be not null");
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        Map<K, RefreshableFuture<V>> missing = new LinkedHashMap<>();
+        for (K key : keys) {
+            Objects.requireNonNull(key, "The key must be not null");
+            if (futures.containsKey(key)) continue;
+            CompletableFuture<V> future = cache.get(key);
+            if (future == null) {
+                RefreshableFuture<V> created = new RefreshableFuture<>();
+                future = cache.putIfAbsent(key, created);
+                if (future == null) {
+                    missing.put(key, created);
+                    futures.put(key, created);
+                    continue;
+                }
+            }
+            refreshIfNeeded(key, future);
+            futures.put(key, future);
+        }
+        counterForInquire.recordHit(futures.size() - missing.size());
+        counterForInquire.recordMiss(missing.size());
+        if (!missing.isEmpty()) {
+            loadAll(missing);
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<K, V> result = new LinkedHashMap<>(futures.size());
+            for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+                V value = entry.getValue().join();
+                if (value != null) {
+                    result.put(entry.getKey(), value);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 获取键对应的值，不会触发加载
+     *
+     * @param key 键
+     * @return 返回加载结果，如果不存在返回null
+     */
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<V> getIfPresent(Object key) {
+        CompletableFuture<V> future = cache.get(key);
+        if (future == null) {
+            counterForInquire.recordMiss(1);
+        } else {
+            counterForInquire.recordHit(1);
+            refreshIfNeeded((K) key, future);
+        }
+        return future;
+    }
+
+    /**
+     * 放入值，替换已有的值或正在加载的结果
+     *
+     * @param key   键
+     * @param value 值
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "The value must be not null");
+        cache.put(key, RefreshableFuture.completed(value, ticker.read() + refreshAfterWrite));
+    }
+
+    /**
+     * 移除键，正在进行的加载不会被取消，但其结果不会再放入缓存
+     *
+     * @param key 键
+     */
+    public void invalidate(Object key) {
+        cache.remove(key);
+    }
+
+    /**
+     * 移除所有键
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * 获取缓存条目数，包含正在加载的条目
+     *
+     * @return 返回缓存条目数
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("size", size(), "hitCount", hitCount(), "missCount", missCount(),
+                "loadSuccessCount", successCount(), "loadFailureCount", failureCount());
+    }
+
+    /**
+     * 开始加载，完成后完成已放入缓存的结果，失败或结果为null时从缓存中移除
+     *
+     * @param key     键
+     * @param created 已放入缓存的结果
+     */
+    private void load(K key, RefreshableFuture<V> created) {
+        long startTime = ticker.read();
+        CompletableFuture<V> loading;
+        try {
+            loading = loader.asyncLoad(key, executor);
+        } catch (Throwable e) {
+            loading = new CompletableFuture<>();
+            loading.completeExceptionally(e);
+        }
+        loading.whenComplete((value, error) -> {
+            long endTime = ticker.read();
+            if (error == null && value != null) {
+                counterForOperate.recordSuccess(endTime - startTime);
+            } else {
+                counterForOperate.recordFailure(endTime - startTime);
+            }
+            complete(key, created, value, error, endTime);
+        });
+    }
+
+    /**
+     * 开始批量加载，完成后逐个完成已放入缓存的结果
+     *
+     * @param missing 缺失的键与已放入缓存的结果
+     */
+    private void loadAll(Map<K, RefreshableFuture<V>> missing) {
+        long startTime = ticker.read();
+        CompletableFuture<? extends Map<? super K, V>> loading;
+        try {
+            loading = loader.asyncLoadAll(missing.keySet(), executor);
+        } catch (Throwable e) {
+            CompletableFuture<Map<K, V>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            loading = failed;
+        }
+        loading.whenComplete((result, error) -> {
+            long endTime = ticker.read();
+            if (error == null && result != null) {
+                counterForOperate.recordSuccess(endTime - startTime);
+            } else {
+                counterForOperate.recordFailure(endTime - startTime);
+            }
+            for (Map.Entry<K, RefreshableFuture<V>> entry : missing.entrySet()) {
+                V value = result == null ? null : result.get(entry.getKey());
+                complete(entry.getKey(), entry.getValue(), value, error, endTime);
+            }
+        });
+    }
+
+    /**
+     * 完成已放入缓存的结果，失败或结果为null时从缓存中移除
+     */
+    private void complete(K key, RefreshableFuture<V> created, V value, Throwable error, long endTime) {
+        if (error == null && value != null) {
+            created.refreshTime = endTime + refreshAfterWrite;
+            created.complete(value);
+            return;
+        }
+        cache.remove(key, created);
+        if (error == null) {
+            created.complete(null);
+        } else {
+            created.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 条目超过刷新时间且没有进行中的刷新时，在后台重新加载一次，不会阻塞调用者
+     *
+     * @param key    键
+     * @param future 读取到的结果
+     */
+    private void refreshIfNeeded(K key, CompletableFuture<V> future) {
+        if (refreshAfterWrite == 0L || !(future instanceof RefreshableFuture)) return;
+        RefreshableFuture<V> current = (RefreshableFuture<V>) future;
+        if (!current.isDone() || current.isCompletedExceptionally()) return;
+        long startTime = ticker.read();
+        if (startTime - current.refreshTime < 0 || !current.tryStartRefresh()) return;
+        V oldValue = current.getNow(null);
+        CompletableFuture<V> reloading;
+        try {
+            reloading = loader.asyncReload(key, oldValue, executor);
+        } catch (Throwable e) {
+            reloading = new CompletableFuture<>();
+            reloading.completeExceptionally(e);
+        }
+        reloading.whenComplete((value, error) -> {
+            long endTime = ticker.read();
+            if (error == null && value != null) {
+                counterForOperate.recordSuccess(endTime - startTime);
+                cache.replace(key, current, RefreshableFuture.completed(value, endTime + refreshAfterWrite));
+                return;
+            }
+            counterForOperate.recordFailure(endTime - startTime);
+            if (error == null) {
+                cache.remove(key, current);
+            } else {
+                current.retryLater(endTime, refreshBackoff);
+            }
+        });
+    }
+
+    /**
+     * 携带刷新状态的结果
+     */
+    private static final class RefreshableFuture<V> extends CompletableFuture<V> {
+        private static final AtomicIntegerFieldUpdater<RefreshableFuture<?>> REFRESHING = newRefreshingUpdater();
+        /**
+         * 超过该时间后读取会触发刷新，纳秒
+         */
+        private volatile long refreshTime;
+        private volatile int refreshing;
+        private InterveningSequence.Execution backoff;
+
+        private static <V> RefreshableFuture<V> completed(V value, long refreshTime) {
+            RefreshableFuture<V> future = new RefreshableFuture<>();
+            future.refreshTime = refreshTime;
+            future.complete(value);
+            return future;
+        }
+
+        /**
+         * 类字面量只能是原始类型，在此处一次性转换为通配符类型
+         */
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static AtomicIntegerFieldUpdater<RefreshableFuture<?>> newRefreshingUpdater() {
+            return (AtomicIntegerFieldUpdater) AtomicIntegerFieldUpdater.newUpdater(RefreshableFuture.class, "refreshing");
+        }
+
+        private boolean tryStartRefresh() {
+            return refreshing == 0 && REFRESHING.compareAndSet(this, 0, 1);
+        }
+
+        /**
+         * 按重试间隔序列推迟下一次刷新，序列停止后不再刷新，只由持有刷新标志的线程调用
+         */
+        private void retryLater(long now, InterveningSequence sequence) {
+            if (backoff == null) {
+                backoff = sequence.start();
+            }
+            long interval = backoff.next();
+            if (interval == InterveningSequence.STOP) return;
+            refreshTime = now + TimeUnit.MILLISECONDS.toNanos(interval);
+            refreshing = 0;
+        }
+    }
+}
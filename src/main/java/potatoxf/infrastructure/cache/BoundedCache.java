@@ -0,0 +1,779 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+import potatoxf.api.support.Log;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.CounterForInquireDelegate;
+import potatoxf.infrastructure.tools.FrequencyEstimator;
+import potatoxf.infrastructure.tools.TimeTicker;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * 有界缓存，使用 W-TinyLFU 淘汰策略，容量按照 {@link WeigherForTwain} 计算的权重限制。
+ * <p>
+ * 读操作无锁，访问记录写入有损的读缓冲区，在获取淘汰锁时批量重放；写操作在淘汰锁下串行执行。
+ * 命中与未命中通过 {@link CounterForInquire} 统计。
+ * 设置 {@link ExpiryPolicy} 后，条目按各自的到期时间过期，过期的条目不再被读取，并在之后的维护中通过 {@link TimerWheel} 批量回收。
+ * 设置 {@link EvictionListener} 后，因超出最大权重被淘汰的条目会被通知，可用于溢出到下一级存储。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class BoundedCache<K, V> implements Cache<K, V>, CounterForInquireDelegate {
+    /*
+     * The policy is W-TinyLFU [1]. New entries are admitted into a small LRU window (1% of the
+     * maximum weight), which absorbs bursts of recency-biased traffic. Entries evicted from the
+     * window become candidates for the main space, a segmented LRU split into a probation and a
+     * protected (80%) segment. When the cache exceeds its maximum, the candidate competes against
+     * the probation segment's LRU victim and the one with the lower estimated frequency, taken
+     * from the FrequencySketch, is evicted. A hit in probation promotes the entry into protected
+     * space, and protected overflow is demoted back to the probation tail.
+     *
+     * With an ExpiryPolicy every node is also a timer of a TimerWheel. A read checks the expiration
+     * time without the lock and treats an expired node as a miss; the read's new expiration time is
+     * written to the node directly and the node is moved in the wheel when the read buffer is replayed.
+     * Each maintenance run advances the wheel and removes the nodes whose time has passed.
+     *
+     * [1] TinyLFU: A Highly Efficient Cache Admission Policy
+     * https://dl.acm.org/citation.cfm?id=3149371
+     */
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = -1;
+    /**
+     * 主空间占最大权重的百分比，剩余部分为窗口空间
+     */
+    private static final double PERCENT_MAIN = 0.99d;
+    /**
+     * 保护区占主空间的百分比
+     */
+    private static final double PERCENT_MAIN_PROTECTED = 0.80d;
+    /**
+     * 候选者频次达到该值后，败给受害者时仍以很小的概率被接纳，以抵御哈希碰撞攻击
+     */
+    private static final int ADMIT_HASHDOS_THRESHOLD = 6;
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_DRAIN_MASK = 31;
+    /**
+     * 最大存活时间，约146年，避免到期时间溢出
+     */
+    private static final long MAXIMUM_EXPIRY = Long.MAX_VALUE >> 1;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final NodeDeque<K, V> windowDeque = new NodeDeque<>();
+    private final NodeDeque<K, V> probationDeque = new NodeDeque<>();
+    private final NodeDeque<K, V> protectedDeque = new NodeDeque<>();
+    private final WeigherForTwain<K, V> weigher;
+    private final boolean weighted;
+    private final CounterForInquire counterForInquire;
+    private final FrequencyEstimator sketch;
+    private final ExpiryPolicy<K, V> expiryPolicy;
+    private final TimeTicker ticker;
+    private final TimerWheel<Node<K, V>> timerWheel;
+    private final EvictionListener<K, V> evictionListener;
+    private long maximum;
+    private long windowMaximum;
+    private long protectedMaximum;
+    private volatile long weightedSize;
+    private long windowWeightedSize;
+    private long protectedWeightedSize;
+
+    /**
+     * @param maximumSize 最大条目数
+     */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, WeigherForTwain.singleton());
+    }
+
+    /**
+     * @param maximumSize  最大条目数
+     * @param expiryPolicy 过期策略，使用 {@link TimeTicker#systemTicker()} 计时
+     */
+    public BoundedCache(long maximumSize, ExpiryPolicy<K, V> expiryPolicy) {
+        this(maximumSize, WeigherForTwain.singleton(), CounterForInquire.of(), FrequencyEstimator.of(),
+                Objects.requireNonNull(expiryPolicy, "The expiry policy must be not null"), TimeTicker.systemTicker());
+    }
+
+    /**
+     * @param maximumWeight 最大权重
+     * @param weigher       权重计算器
+     */
+    public BoundedCache(long maximumWeight, WeigherForTwain<K, V> weigher) {
+        this(maximumWeight, weigher, CounterForInquire.of());
+    }
+
+    /**
+     * @param maximumWeight     最大权重
+     * @param weigher           权重计算器
+     * @param counterForInquire 命中统计器
+     */
+    public BoundedCache(long maximumWeight, WeigherForTwain<K, V> weigher, CounterForInquire counterForInquire) {
+        this(maximumWeight, weigher, counterForInquire, FrequencyEstimator.of());
+    }
+
+    /**
+     * @param maximumWeight     最大权重
+     * @param weigher           权重计算器
+     * @param counterForInquire 命中统计器
+     * @param sketch            频次估计器，只在淘汰锁下访问，无需线程安全
+     */
+    public BoundedCache(long maximumWeight, WeigherForTwain<K, V> weigher, CounterForInquire counterForInquire, FrequencyEstimator sketch) {
+        this(maximumWeight, weigher, counterForInquire, sketch, null, TimeTicker.disabledTicker());
+    }
+
+    /**
+     * @param maximumWeight     最大权重
+     * @param weigher           权重计算器
+     * @param counterForInquire 命中统计器
+     * @param sketch            频次估计器，只在淘汰锁下访问，无需线程安全
+     * @param expiryPolicy      过期策略，为null时条目不会过期
+     * @param ticker            纳秒时间源
+     */
+    public BoundedCache(long maximumWeight, WeigherForTwain<K, V> weigher, CounterForInquire counterForInquire, FrequencyEstimator sketch,
+                        ExpiryPolicy<K, V> expiryPolicy, TimeTicker ticker) {
+        this(maximumWeight, weigher, counterForInquire, sketch, expiryPolicy, ticker, null);
+    }
+
+    /**
+     * @param maximumWeight     最大权重
+     * @param weigher           权重计算器
+     * @param counterForInquire 命中统计器
+     * @param sketch            频次估计器，只在淘汰锁下访问，无需线程安全
+     * @param expiryPolicy      过期策略，为null时条目不会过期
+     * @param ticker            纳秒时间源
+     * @param evictionListener  淘汰监听器，为null时不通知
+     */
+    public BoundedCache(long maximumWeight, WeigherForTwain<K, V> weigher, CounterForInquire counterForInquire, FrequencyEstimator sketch,
+                        ExpiryPolicy<K, V> expiryPolicy, TimeTicker ticker, EvictionListener<K, V> evictionListener) {
+        Arg.check(maximumWeight >= 0, () -> "The maximum weight must greater then or equal 0,but the value is '" + maximumWeight + "'");
+        Objects.requireNonNull(weigher, "The weigher must be not null");
+        this.weighted = weigher != WeigherForTwain.singleton();
+        this.weigher = weighted ? WeigherForTwain.boundedDelegate(weigher) : weigher;
+        this.counterForInquire = Objects.requireNonNull(counterForInquire, "The counter must be not null");
+        this.sketch = Objects.requireNonNull(sketch, "The sketch must be not null");
+        this.expiryPolicy = expiryPolicy;
+        this.ticker = Objects.requireNonNull(ticker, "The ticker must be not null");
+        this.timerWheel = expiryPolicy == null ? null : new TimerWheel<>(ticker);
+        this.evictionListener = evictionListener;
+        this.maximum(maximumWeight);
+        if (!weighted) {
+            sketch.ensureCapacity(maximumWeight);
+        }
+    }
+
+    /**
+     * 获取代理 {@link CounterForInquire}
+     *
+     * @return 返回代理{@link CounterForInquire}
+     */
+    @Override
+    public CounterForInquire delegateCounterForInquire() {
+        return counterForInquire;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            counterForInquire.recordMiss(1);
+            return null;
+        }
+        V value = node.value;
+        if (expiryPolicy != null) {
+            long now = ticker.read();
+            if (hasExpired(node, now)) {
+                counterForInquire.recordMiss(1);
+                return null;
+            }
+            long expirationTime = node.getExpirationTime();
+            long duration = expiryPolicy.expireAfterRead(node.key, value, now, expirationTime - now);
+            if (duration != expirationTime - now) {
+                node.setExpirationTime(expirationTime(now, duration));
+            }
+        }
+        counterForInquire.recordHit(1);
+        afterRead(node);
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(oldValue, "The old value must be not null");
+        Objects.requireNonNull(newValue, "The new value must be not null");
+        int weight = weigher.weigh(key, newValue);
+        evictionLock.lock();
+        try {
+            maintenance();
+            long now = expiryPolicy == null ? 0L : ticker.read();
+            Node<K, V> node = data.get(key);
+            if (node == null || !node.value.equals(oldValue)) return false;
+            if (expiryPolicy != null && hasExpired(node, now)) return false;
+            update(node, newValue, weight, now, false);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null) return null;
+            removeNode(node);
+            return expiryPolicy != null && hasExpired(node, ticker.read()) ? null : node.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null || !node.value.equals(value)) return false;
+            removeNode(node);
+            return expiryPolicy == null || !hasExpired(node, ticker.read());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+                readBuffer.lazySet(i, null);
+            }
+            for (Node<K, V> node : data.values()) {
+                node.queueType = DEAD;
+            }
+            data.clear();
+            if (timerWheel != null) {
+                timerWheel.clear();
+            }
+            windowDeque.clear();
+            probationDeque.clear();
+            protectedDeque.clear();
+            weightedSize = 0;
+            windowWeightedSize = 0;
+            protectedWeightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 获取缓存条目数，可能包含已过期但尚未回收的条目
+     *
+     * @return 返回缓存条目数
+     */
+    @Override
+    public long size() {
+        return data.mappingCount();
+    }
+
+    /**
+     * 获取当前权重总和
+     *
+     * @return 返回当前权重总和
+     */
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * 获取最大权重
+     *
+     * @return 返回最大权重
+     */
+    public long maximum() {
+        evictionLock.lock();
+        try {
+            return maximum;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 调整最大权重，缩小时立即淘汰超出的条目
+     *
+     * @param maximumWeight 最大权重
+     */
+    public void setMaximum(long maximumWeight) {
+        Arg.check(maximumWeight >= 0, () -> "The maximum weight must greater then or equal 0,but the value is '" + maximumWeight + "'");
+        evictionLock.lock();
+        try {
+            maintenance();
+            maximum(maximumWeight);
+            if (!weighted) {
+                sketch.ensureCapacity(maximumWeight);
+            }
+            demoteFromProtected();
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 获取键的估计访问频次
+     *
+     * @param key 键
+     * @return 返回估计访问频次
+     */
+    public int frequency(K key) {
+        evictionLock.lock();
+        try {
+            return sketch.frequency(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 批量获取键的估计访问频次，只获取一次淘汰锁
+     *
+     * @param keys        键
+     * @param count       键的数量
+     * @param frequencies 保存估计访问频次
+     */
+    void frequencies(Object[] keys, int count, int[] frequencies) {
+        evictionLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                frequencies[i] = sketch.frequency(keys[i]);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 判断是否包含未过期的键，不记录访问和命中
+     *
+     * @param key 键
+     * @return 如果包含返回true，否则返回false
+     */
+    boolean containsKey(Object key) {
+        Node<K, V> node = data.get(key);
+        return node != null && (expiryPolicy == null || !hasExpired(node, ticker.read()));
+    }
+
+    /**
+     * 遍历所有未过期的条目，弱一致性，不记录访问也不影响淘汰顺序
+     *
+     * @param action 处理条目
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action, "The action must be not null");
+        long now = expiryPolicy == null ? 0L : ticker.read();
+        for (Node<K, V> node : data.values()) {
+            V value = node.value;
+            if (expiryPolicy != null && hasExpired(node, now)) continue;
+            action.accept(node.key, value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("size", size(), "weightedSize", weightedSize(), "maximum", maximum(),
+                "hitCount", hitCount(), "missCount", missCount());
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(value, "The value must be not null");
+        int weight = weigher.weigh(key, value);
+        evictionLock.lock();
+        try {
+            maintenance();
+            long now = expiryPolicy == null ? 0L : ticker.read();
+            Node<K, V> node = data.get(key);
+            if (node != null && expiryPolicy != null && hasExpired(node, now)) {
+                removeNode(node);
+                node = null;
+            }
+            if (node != null) {
+                return update(node, value, weight, now, onlyIfAbsent);
+            }
+            node = new Node<>(key, value, weight);
+            if (expiryPolicy != null) {
+                timerWheel.schedule(node, expirationTime(now, expiryPolicy.expireAfterCreate(key, value, now)));
+            }
+            data.put(key, node);
+            if (weighted) {
+                sketch.ensureCapacity(data.size());
+            }
+            sketch.increment(key);
+            weightedSize += weight;
+            windowWeightedSize += weight;
+            windowDeque.addLast(node);
+            evictEntries();
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 更新已存在的节点并记录访问，需要持有淘汰锁
+     *
+     * @return 返回之前的值
+     */
+    private V update(Node<K, V> node, V value, int weight, long now, boolean onlyIfAbsent) {
+        V oldValue = node.value;
+        if (!onlyIfAbsent) {
+            node.value = value;
+            updateWeight(node, weight);
+        }
+        if (expiryPolicy != null) {
+            long currentDuration = node.getExpirationTime() - now;
+            long duration = onlyIfAbsent
+                    ? expiryPolicy.expireAfterRead(node.key, oldValue, now, currentDuration)
+                    : expiryPolicy.expireAfterUpdate(node.key, value, now, currentDuration);
+            timerWheel.reschedule(node, expirationTime(now, duration));
+        }
+        onAccess(node);
+        evictEntries();
+        return oldValue;
+    }
+
+    /**
+     * 设置最大权重，并按比例划分窗口空间和保护区
+     */
+    private void maximum(long maximum) {
+        this.maximum = maximum;
+        this.windowMaximum = maximum - (long) (PERCENT_MAIN * maximum);
+        this.protectedMaximum = (long) (PERCENT_MAIN_PROTECTED * (maximum - windowMaximum));
+    }
+
+    /**
+     * 记录读取，写入有损的读缓冲区，缓冲区满时丢弃旧的记录
+     */
+    private void afterRead(Node<K, V> node) {
+        int seed = ThreadLocalRandom.current().nextInt();
+        readBuffer.lazySet(seed & READ_BUFFER_MASK, node);
+        if (((seed >>> 16) & READ_BUFFER_DRAIN_MASK) == 0 && evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 重放读缓冲区并回收过期条目，需要持有淘汰锁
+     */
+    private void maintenance() {
+        drainReadBuffer();
+        if (timerWheel != null) {
+            timerWheel.advance(ticker.read(), this::removeNode);
+        }
+    }
+
+    /**
+     * 重放读缓冲区中的访问记录，需要持有淘汰锁
+     */
+    private void drainReadBuffer() {
+        for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+            if (readBuffer.get(i) != null) {
+                Node<K, V> node = readBuffer.getAndSet(i, null);
+                if (node != null) {
+                    onAccess(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录访问，需要持有淘汰锁
+     */
+    private void onAccess(Node<K, V> node) {
+        if (timerWheel != null && node.isScheduled()) {
+            //读取时可能修改了到期时间，移动到对应的桶
+            timerWheel.reschedule(node, node.getExpirationTime());
+        }
+        switch (node.queueType) {
+            case WINDOW:
+                sketch.increment(node.key);
+                windowDeque.moveToBack(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                probationDeque.remove(node);
+                node.queueType = PROTECTED;
+                protectedDeque.addLast(node);
+                protectedWeightedSize += node.weight;
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedDeque.moveToBack(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 保护区超出时，将最久未访问的条目降级到观察区
+     */
+    private void demoteFromProtected() {
+        while (protectedWeightedSize > protectedMaximum) {
+            Node<K, V> node = protectedDeque.pollFirst();
+            if (node == null) break;
+            node.queueType = PROBATION;
+            probationDeque.addLast(node);
+            protectedWeightedSize -= node.weight;
+        }
+    }
+
+    private void updateWeight(Node<K, V> node, int weight) {
+        int delta = weight - node.weight;
+        node.weight = weight;
+        weightedSize += delta;
+        if (node.queueType == WINDOW) {
+            windowWeightedSize += delta;
+        } else if (node.queueType == PROTECTED) {
+            protectedWeightedSize += delta;
+        }
+    }
+
+    private void evictEntries() {
+        evictFromMain(evictFromWindow());
+    }
+
+    /**
+     * 将窗口溢出的条目移动到观察区尾部作为候选者
+     *
+     * @return 返回第一个候选者，如果没有返回null
+     */
+    private Node<K, V> evictFromWindow() {
+        Node<K, V> first = null;
+        while (windowWeightedSize > windowMaximum) {
+            Node<K, V> node = windowDeque.pollFirst();
+            if (node == null) break;
+            node.queueType = PROBATION;
+            probationDeque.addLast(node);
+            windowWeightedSize -= node.weight;
+            if (first == null) {
+                first = node;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * 超出最大权重时，在候选者与观察区头部的受害者之间淘汰估计频次较低的一方
+     *
+     * @param candidate 第一个候选者
+     */
+    private void evictFromMain(Node<K, V> candidate) {
+        while (weightedSize > maximum) {
+            Node<K, V> victim = probationDeque.peekFirst();
+            if (victim == null) {
+                victim = protectedDeque.peekFirst();
+            }
+            if (victim == null) {
+                victim = windowDeque.peekFirst();
+            }
+            if (victim == null) break;
+            if (candidate == null || candidate.queueType != PROBATION) {
+                candidate = null;
+                evict(victim);
+            } else if (candidate == victim || candidate.weight > maximum) {
+                Node<K, V> next = candidate.next;
+                evict(candidate);
+                candidate = next;
+            } else if (admit(candidate.key, victim.key)) {
+                Node<K, V> next = candidate.next;
+                evict(victim);
+                candidate = next;
+            } else {
+                Node<K, V> next = candidate.next;
+                evict(candidate);
+                candidate = next;
+            }
+        }
+    }
+
+    /**
+     * 判断候选者是否应该被接纳
+     *
+     * @param candidateKey 候选者键
+     * @param victimKey    受害者键
+     * @return 如果接纳候选者返回true，否则返回false
+     */
+    private boolean admit(K candidateKey, K victimKey) {
+        int victimFreq = sketch.frequency(victimKey);
+        int candidateFreq = sketch.frequency(candidateKey);
+        if (candidateFreq > victimFreq) return true;
+        if (candidateFreq < ADMIT_HASHDOS_THRESHOLD) return false;
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    /**
+     * 因超出最大权重移除节点并通知淘汰监听器，需要持有淘汰锁。
+     * 监听器抛出的异常只记录日志，淘汰继续进行，避免缓存停留在超出最大权重的状态
+     */
+    private void evict(Node<K, V> node) {
+        removeNode(node);
+        if (evictionListener != null) {
+            try {
+                evictionListener.onEviction(node.key, node.value, node.weight);
+            } catch (RuntimeException e) {
+                if (Log.isEnabledWarn()) {
+                    Log.warn("Error to notify eviction listener with key '" + node.key + "'", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从哈希表和淘汰策略中移除节点，需要持有淘汰锁
+     */
+    private void removeNode(Node<K, V> node) {
+        data.remove(node.key, node);
+        if (timerWheel != null) {
+            timerWheel.cancel(node);
+        }
+        switch (node.queueType) {
+            case WINDOW:
+                windowDeque.remove(node);
+                windowWeightedSize -= node.weight;
+                break;
+            case PROBATION:
+                probationDeque.remove(node);
+                break;
+            case PROTECTED:
+                protectedDeque.remove(node);
+                protectedWeightedSize -= node.weight;
+                break;
+            default:
+                return;
+        }
+        weightedSize -= node.weight;
+        node.queueType = DEAD;
+    }
+
+    /**
+     * 是否已经过期
+     */
+    private static boolean hasExpired(Node<?, ?> node, long now) {
+        return node.getExpirationTime() - now <= 0;
+    }
+
+    /**
+     * 计算到期时间，存活时间最大为 {@link #MAXIMUM_EXPIRY}
+     */
+    private static long expirationTime(long now, long duration) {
+        return now + Math.min(Math.max(duration, 0L), MAXIMUM_EXPIRY);
+    }
+
+    private static final class Node<K, V> extends TimerWheel.Timer {
+        private final K key;
+        private volatile V value;
+        private int weight;
+        private int queueType;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.queueType = WINDOW;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的侵入式双向链表，头部为最久未访问
+     */
+    private static final class NodeDeque<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+
+        private Node<K, V> peekFirst() {
+            return head;
+        }
+
+        private Node<K, V> pollFirst() {
+            Node<K, V> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        private void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        private void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void remove(Node<K, V> node) {
+            Node<K, V> prev = node.prev;
+            Node<K, V> next = node.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+}
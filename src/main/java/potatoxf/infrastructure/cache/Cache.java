@@ -0,0 +1,96 @@
+package potatoxf.infrastructure.cache;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * 缓存，键值都不允许为null
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public interface Cache<K, V> {
+
+    /**
+     * 获取缓存值
+     *
+     * @param key 键
+     * @return 返回缓存值，如果不存在返回null
+     */
+    V get(Object key);
+
+    /**
+     * 获取缓存值，如果不存在则通过计算函数计算并放入缓存
+     *
+     * @param key             键
+     * @param mappingFunction 计算函数，返回null表示不缓存
+     * @return 返回缓存值，如果计算结果为null则返回null
+     */
+    default V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction, "The mapping function must be not null");
+        V value = get(key);
+        if (value != null) return value;
+        value = mappingFunction.apply(key);
+        if (value == null) return null;
+        V prior = putIfAbsent(key, value);
+        return prior == null ? value : prior;
+    }
+
+    /**
+     * 放入缓存值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 返回之前的值，如果不存在返回null
+     */
+    V put(K key, V value);
+
+    /**
+     * 如果不存在则放入缓存值
+     *
+     * @param key   键
+     * @param value 值
+     * @return 返回已存在的值，如果不存在返回null
+     */
+    V putIfAbsent(K key, V value);
+
+    /**
+     * 当缓存值与旧值相同时替换为新值
+     *
+     * @param key      键
+     * @param oldValue 旧值
+     * @param newValue 新值
+     * @return 如果替换返回true，否则返回false
+     */
+    boolean replace(K key, V oldValue, V newValue);
+
+    /**
+     * 移除缓存值
+     *
+     * @param key 键
+     * @return 返回被移除的值，如果不存在返回null
+     */
+    V remove(Object key);
+
+    /**
+     * 当缓存值与指定值相同时移除
+     *
+     * @param key   键
+     * @param value 值
+     * @return 如果移除返回true，否则返回false
+     */
+    boolean remove(Object key, Object value);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+
+    /**
+     * 获取缓存条目数
+     *
+     * @return 返回缓存条目数
+     */
+    long size();
+}
@@ -0,0 +1,133 @@
+package potatoxf.infrastructure.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存加载器，在缓存未命中时加载值
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+
+    /**
+     * 创建微批量加载器，时间窗口内并发的单键异步加载被合并为一次 {@link #asyncLoadAll} 调用
+     *
+     * @param delegate         被代理的加载器，应实现 {@link #loadAll(Set)}
+     * @param window           时间窗口，从窗口内第一次加载开始计算
+     * @param unit             时间单位
+     * @param maximumBatchSize 批量的最大键数，达到后立即加载
+     * @param scheduler        到达时间窗口后触发加载的调度器
+     * @return 返回 {@link CacheLoader}
+     */
+    static <K, V> CacheLoader<K, V> batching(CacheLoader<K, V> delegate, long window, TimeUnit unit, int maximumBatchSize,
+                                             ScheduledExecutorService scheduler) {
+        return new CacheLoaderForBatch<>(delegate, unit.toNanos(window), maximumBatchSize, scheduler);
+    }
+
+    /**
+     * 加载键对应的值
+     *
+     * @param key 键
+     * @return 返回值，返回null表示不存在
+     * @throws Exception 如果加载失败
+     */
+    V load(K key) throws Exception;
+
+    /**
+     * 重新加载已缓存的键，默认调用 {@link #load(Object)}
+     *
+     * @param key      键
+     * @param oldValue 当前缓存的值
+     * @return 返回新的值，返回null表示不存在，条目会被移除
+     * @throws Exception 如果加载失败
+     */
+    default V reload(K key, V oldValue) throws Exception {
+        return load(key);
+    }
+
+    /**
+     * 批量加载键对应的值，默认逐个调用 {@link #load(Object)}，应覆盖为一次调用加载所有键
+     *
+     * @param keys 键
+     * @return 返回键与值的映射，不存在的键可以不包含
+     * @throws Exception 如果加载失败
+     */
+    default Map<K, V> loadAll(Set<? extends K> keys) throws Exception {
+        Map<K, V> result = new HashMap<>(Math.max(16, (int) (keys.size() / 0.75f) + 1));
+        for (K key : keys) {
+            V value = load(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 异步加载键对应的值，默认在执行器中调用 {@link #load(Object)}
+     *
+     * @param key      键
+     * @param executor 执行器
+     * @return 返回加载结果
+     */
+    default CompletableFuture<V> asyncLoad(K key, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(key);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 异步重新加载已缓存的键，默认在执行器中调用 {@link #reload(Object, Object)}
+     *
+     * @param key      键
+     * @param oldValue 当前缓存的值
+     * @param executor 执行器
+     * @return 返回重新加载的结果
+     */
+    default CompletableFuture<V> asyncReload(K key, V oldValue, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return reload(key, oldValue);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 异步批量加载键对应的值，默认在执行器中调用 {@link #loadAll(Set)}
+     *
+     * @param keys     键
+     * @param executor 执行器
+     * @return 返回键与值的映射的加载结果
+     */
+    default CompletableFuture<Map<K, V>> asyncLoadAll(Set<? extends K> keys, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadAll(keys);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
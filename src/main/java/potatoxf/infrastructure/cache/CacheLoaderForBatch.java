@@ -0,0 +1,166 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 微批量加载器，将时间窗口内并发的单键异步加载合并为一次批量加载
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class CacheLoaderForBatch<K, V> implements CacheLoader<K, V> {
+    /*
+     * The open batch is published through an AtomicReference. The first asyncLoad() that finds no
+     * open batch creates one and schedules its flush after the window, later callers join it. A
+     * batch is closed exactly once, either by the scheduled flush or by the caller that fills it up
+     * to the maximum size, and a caller that races with the closing simply retries on a new batch.
+     * The keys of a closed batch are handed to the delegate in a single asyncLoadAll() on the executor
+     * of the caller that opened it, and each caller's future completes from the resulting map.
+     */
+
+    private final CacheLoader<K, V> delegate;
+    private final long window;
+    private final int maximumBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicReference<Batch<K, V>> current = new AtomicReference<>();
+
+    CacheLoaderForBatch(CacheLoader<K, V> delegate, long window, int maximumBatchSize, ScheduledExecutorService scheduler) {
+        Arg.check(window >= 0, () -> "The window must greater then or equal 0,but the value is '" + window + "'");
+        Arg.check(maximumBatchSize > 0, () -> "The maximum batch size must greater then 0,but the value is '" + maximumBatchSize + "'");
+        this.delegate = Objects.requireNonNull(delegate, "The delegate must be not null");
+        this.window = window;
+        this.maximumBatchSize = maximumBatchSize;
+        this.scheduler = Objects.requireNonNull(scheduler, "The scheduler must be not null");
+    }
+
+    @Override
+    public V load(K key) throws Exception {
+        return delegate.load(key);
+    }
+
+    @Override
+    public V reload(K key, V oldValue) throws Exception {
+        return delegate.reload(key, oldValue);
+    }
+
+    @Override
+    public Map<K, V> loadAll(Set<? extends K> keys) throws Exception {
+        return delegate.loadAll(keys);
+    }
+
+    @Override
+    public CompletableFuture<V> asyncReload(K key, V oldValue, Executor executor) {
+        return delegate.asyncReload(key, oldValue, executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> asyncLoadAll(Set<? extends K> keys, Executor executor) {
+        return delegate.asyncLoadAll(keys, executor);
+    }
+
+    /**
+     * 加入当前的批量，批量在时间窗口结束或达到最大键数时加载
+     *
+     * @param key      键
+     * @param executor 执行器
+     * @return 返回加载结果
+     */
+    @Override
+    public CompletableFuture<V> asyncLoad(K key, Executor executor) {
+        for (; ; ) {
+            Batch<K, V> batch = current.get();
+            if (batch == null) {
+                Batch<K, V> created = new Batch<>(executor);
+                if (!current.compareAndSet(null, created)) continue;
+                batch = created;
+                scheduler.schedule(() -> flush(created), window, TimeUnit.NANOSECONDS);
+            }
+            CompletableFuture<V> future = batch.add(key, maximumBatchSize);
+            if (future == null) {
+                //批量已关闭
+                current.compareAndSet(batch, null);
+                continue;
+            }
+            if (batch.isFull(maximumBatchSize)) {
+                flush(batch);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * 关闭批量并加载，每个批量只会加载一次
+     */
+    private void flush(Batch<K, V> batch) {
+        current.compareAndSet(batch, null);
+        Map<K, CompletableFuture<V>> futures = batch.close();
+        if (futures == null || futures.isEmpty()) return;
+        CompletableFuture<Map<K, V>> loading;
+        try {
+            loading = delegate.asyncLoadAll(futures.keySet(), batch.executor);
+        } catch (Throwable e) {
+            loading = new CompletableFuture<>();
+            loading.completeExceptionally(e);
+        }
+        loading.whenComplete((result, error) -> {
+            for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+                if (error == null) {
+                    entry.getValue().complete(result == null ? null : result.get(entry.getKey()));
+                } else {
+                    entry.getValue().completeExceptionally(error);
+                }
+            }
+        });
+    }
+
+    private static final class Batch<K, V> {
+        private final Executor executor;
+        private Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+
+        private Batch(Executor executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * 加入键，同一个键共享同一个结果
+         *
+         * @return 返回结果，如果批量已关闭或已满返回null
+         */
+        private synchronized CompletableFuture<V> add(K key, int maximumBatchSize) {
+            if (futures == null) return null;
+            CompletableFuture<V> future = futures.get(key);
+            if (future == null) {
+                if (futures.size() >= maximumBatchSize) return null;
+                future = new CompletableFuture<>();
+                futures.put(key, future);
+            }
+            return future;
+        }
+
+        private synchronized boolean isFull(int maximumBatchSize) {
+            return futures != null && futures.size() >= maximumBatchSize;
+        }
+
+        /**
+         * 关闭批量
+         *
+         * @return 返回所有键的结果，如果已经关闭返回null
+         */
+        private synchronized Map<K, CompletableFuture<V>> close() {
+            Map<K, CompletableFuture<V>> futures = this.futures;
+            this.futures = null;
+            return futures;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+import potatoxf.infrastructure.value.BinaryVal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 缓存预热快照，将 {@link BoundedCache} 中估计访问频次最高的条目写入文件，启动时并行加载回缓存。
+ * <p>
+ * 键和值通过编码函数转换为 {@link BinaryVal} 后写入其字节；读取时包装为 {@link BinaryVal} 交给解码函数。
+ * 写出是流式的，除缓冲区外只需要常数内存；写入临时文件后再替换目标文件，中途失败不会破坏之前的快照。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class CacheSnapshot<K, V> {
+    /*
+     * The frequencies come from a 4-bit sketch, so ranking needs no sort. A first pass over the cache
+     * builds a 16 bucket histogram of the frequencies, from which the lowest frequency that still
+     * fits into the limit and the quota of entries at exactly that frequency are derived. A second
+     * pass streams every entry above the threshold and the quota at the threshold straight to the
+     * output. Entries that change between the passes only make the result approximate, and the
+     * limit is enforced again while writing.
+     *
+     * The sketch is only read under the cache's eviction lock, so both passes buffer the entries in
+     * batches and read the frequencies of a whole batch under one acquisition of the lock, instead
+     * of contending with writers for every entry.
+     *
+     * Loading reads the file sequentially and hands batches of raw records to the executor, which
+     * decodes and inserts them. A semaphore bounds the batches in flight, so memory stays bounded
+     * even when the file is much faster to read than the cache is to fill.
+     */
+
+    private static final int MAGIC = 0x43534E50;
+    private static final int VERSION = 1;
+    private static final int END = -1;
+    private static final int MAXIMUM_FREQUENCY = 15;
+    private static final int BATCH_SIZE = 512;
+    private final Function<? super K, ? extends BinaryVal> keyEncoder;
+    private final Function<? super BinaryVal, ? extends K> keyDecoder;
+    private final Function<? super V, ? extends BinaryVal> valueEncoder;
+    private final Function<? super BinaryVal, ? extends V> valueDecoder;
+
+    /**
+     * @param keyEncoder   键编码函数
+     * @param keyDecoder   键解码函数
+     * @param valueEncoder 值编码函数
+     * @param valueDecoder 值解码函数
+     */
+    public CacheSnapshot(Function<? super K, ? extends BinaryVal> keyEncoder, Function<? super BinaryVal, ? extends K> keyDecoder,
+                         Function<? super V, ? extends BinaryVal> valueEncoder, Function<? super BinaryVal, ? extends V> valueDecoder) {
+        this.keyEncoder = Objects.requireNonNull(keyEncoder, "The key encoder must be not null");
+        this.keyDecoder = Objects.requireNonNull(keyDecoder, "The key decoder must be not null");
+        this.valueEncoder = Objects.requireNonNull(valueEncoder, "The value encoder must be not null");
+        this.valueDecoder = Objects.requireNonNull(valueDecoder, "The value decoder must be not null");
+    }
+
+    /**
+     * 写出频次最高的条目到文件，先写入同目录的临时文件再替换
+     *
+     * @param cache 缓存
+     * @param limit 最大条目数
+     * @param file  快照文件
+     * @return 返回写出的条目数
+     * @throws IOException 如果写入失败
+     */
+    public long dump(BoundedCache<K, V> cache, int limit, File file) throws IOException {
+        File temporary = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        long count;
+        try (OutputStream out = new FileOutputStream(temporary)) {
+            count = dump(cache, limit, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary.toPath());
+            throw e;
+        }
+        try {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return count;
+    }
+
+    /**
+     * 写出频次最高的条目
+     *
+     * @param cache        缓存
+     * @param limit        最大条目数
+     * @param outputStream 输出流，不会被关闭
+     * @return 返回写出的条目数
+     * @throws IOException 如果写入失败
+     */
+    public long dump(BoundedCache<K, V> cache, int limit, OutputStream outputStream) throws IOException {
+        Objects.requireNonNull(cache, "The cache must be not null");
+        Arg.check(limit >= 0, () -> "The limit must greater then or equal 0,but the value is '" + limit + "'");
+        long[] histogram = new long[MAXIMUM_FREQUENCY + 1];
+        Batch histogramBatch = new Batch(cache) {
+            @Override
+            void accept(Object key, Object value, int frequency) {
+                histogram[frequency]++;
+            }
+        };
+        cache.forEach(histogramBatch::add);
+        histogramBatch.flush();
+        int threshold = 0;
+        long quota = Long.MAX_VALUE;
+        long remaining = limit;
+        for (int frequency = MAXIMUM_FREQUENCY; frequency >= 0; frequency--) {
+            if (histogram[frequency] >= remaining) {
+                threshold = frequency;
+                quota = remaining;
+                break;
+            }
+            remaining -= histogram[frequency];
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 65536));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        long[] counts = {0, quota};
+        int minimum = threshold;
+        Batch writeBatch = new Batch(cache) {
+            @Override
+            @SuppressWarnings("unchecked")
+            void accept(Object key, Object value, int frequency) {
+                if (counts[0] >= limit) return;
+                if (frequency < minimum) return;
+                if (frequency == minimum && counts[1]-- <= 0) return;
+                try {
+                    write(out, keyEncoder.apply((K) key).getValue());
+                    write(out, valueEncoder.apply((V) value).getValue());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                counts[0]++;
+            }
+        };
+        try {
+            cache.forEach(writeBatch::add);
+            writeBatch.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.writeInt(END);
+        out.flush();
+        return counts[0];
+    }
+
+    /**
+     * 定期写出频次最高的条目到文件，写入失败时停止调度，异常可以从返回值获取
+     *
+     * @param cache     缓存
+     * @param limit     最大条目数
+     * @param file      快照文件
+     * @param scheduler 调度器
+     * @param period    周期
+     * @param unit      时间单位
+     * @return 返回调度结果，用于取消
+     */
+    public ScheduledFuture<?> dumpPeriodically(BoundedCache<K, V> cache, int limit, File file,
+                                               ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        Arg.check(period > 0, () -> "The period must greater then 0,but the value is '" + period + "'");
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                dump(cache, limit, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * 使用 {@link ForkJoinPool#commonPool()} 按处理器数量并行加载快照文件，文件不存在时不加载
+     *
+     * @param cache 缓存
+     * @param file  快照文件
+     * @return 返回放入缓存的条目数
+     * @throws IOException 如果读取失败或格式错误
+     */
+    public long load(Cache<K, V> cache, File file) throws IOException {
+        if (!file.isFile()) return 0;
+        try (InputStream in = new FileInputStream(file)) {
+            return load(cache, in, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * 并行加载快照，已存在的键不会被覆盖
+     *
+     * @param cache       缓存
+     * @param inputStream 输入流，不会被关闭
+     * @param executor    执行解码和放入缓存的执行器
+     * @param parallelism 同时执行的批次数
+     * @return 返回放入缓存的条目数
+     * @throws IOException 如果读取失败或格式错误
+     */
+    public long load(Cache<K, V> cache, InputStream inputStream, Executor executor, int parallelism) throws IOException {
+        Objects.requireNonNull(cache, "The cache must be not null");
+        Objects.requireNonNull(executor, "The executor must be not null");
+        Arg.check(parallelism > 0, () -> "The parallelism must greater then 0,but the value is '" + parallelism + "'");
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, 65536));
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("The snapshot magic must be '" + Integer.toHexString(MAGIC) + "',but the value is '" + Integer.toHexString(magic) + "'");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version '" + version + "'");
+        }
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicLong loaded = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<byte[]> batch = new ArrayList<>(BATCH_SIZE * 2);
+        try {
+            for (; ; ) {
+                byte[] key = read(in);
+                if (key == null) break;
+                byte[] value = read(in);
+                if (value == null) throw new IOException("The snapshot is malformed");
+                batch.add(key);
+                batch.add(value);
+                if (batch.size() >= BATCH_SIZE * 2) {
+                    submit(cache, batch, executor, permits, loaded, failure);
+                    batch = new ArrayList<>(BATCH_SIZE * 2);
+                }
+                if (failure.get() != null) break;
+            }
+            if (!batch.isEmpty() && failure.get() == null) {
+                submit(cache, batch, executor, permits, loaded, failure);
+            }
+        } finally {
+            permits.acquireUninterruptibly(parallelism);
+            permits.release(parallelism);
+        }
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        if (e != null) throw new IOException(e);
+        return loaded.get();
+    }
+
+    private void submit(Cache<K, V> cache, List<byte[]> batch, Executor executor, Semaphore permits,
+                        AtomicLong loaded, AtomicReference<Throwable> failure) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading snapshot");
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    long count = 0;
+                    for (int i = 0; i < batch.size(); i += 2) {
+                        K key = keyDecoder.apply(BinaryVal.of(batch.get(i)));
+                        V value = valueDecoder.apply(BinaryVal.of(batch.get(i + 1)));
+                        if (cache.putIfAbsent(key, value) == null) {
+                            count++;
+                        }
+                    }
+                    loaded.addAndGet(count);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private static void write(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 读取一个字段
+     *
+     * @return 返回字段的字节，遇到结束标记返回null
+     */
+    private static byte[] read(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("The snapshot is truncated", e);
+        }
+        if (length == END) return null;
+        if (length < 0) throw new IOException("The snapshot is malformed");
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 缓存条目的批次，批次满时在一次淘汰锁下读取所有键的频次，再逐个处理
+     */
+    private abstract static class Batch {
+        private final BoundedCache<?, ?> cache;
+        private final Object[] keys = new Object[BATCH_SIZE];
+        private final Object[] values = new Object[BATCH_SIZE];
+        private final int[] frequencies = new int[BATCH_SIZE];
+        private int size;
+
+        private Batch(BoundedCache<?, ?> cache) {
+            this.cache = cache;
+        }
+
+        /**
+         * 处理一个条目
+         *
+         * @param key       键
+         * @param value     值
+         * @param frequency 估计访问频次，在0到15之间
+         */
+        abstract void accept(Object key, Object value, int frequency);
+
+        private void add(Object key, Object value) {
+            keys[size] = key;
+            values[size] = value;
+            if (++size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            cache.frequencies(keys, size, frequencies);
+            for (int i = 0; i < size; i++) {
+                accept(keys[i], values[i], Math.min(Math.max(frequencies[i], 0), MAXIMUM_FREQUENCY));
+                keys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
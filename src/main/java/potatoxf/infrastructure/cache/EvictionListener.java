@@ -0,0 +1,21 @@
+package potatoxf.infrastructure.cache;
+
+/**
+ * 淘汰监听器，在条目因超出最大权重被淘汰时调用，显式移除、替换和过期的条目不会通知
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+@FunctionalInterface
+public interface EvictionListener<K, V> {
+
+    /**
+     * 条目已被淘汰，在淘汰锁下同步调用，应尽快返回且不能再访问缓存，抛出的异常会被记录并忽略
+     *
+     * @param key    键
+     * @param value  值
+     * @param weight 权重
+     */
+    void onEviction(K key, V value, int weight);
+}
@@ -0,0 +1,119 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条目过期策略，计算条目在创建、更新、读取之后的剩余存活时间，时间单位为纳秒。
+ * 返回 {@link Long#MAX_VALUE} 表示永不过期。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ * @see TimerWheel
+ */
+public interface ExpiryPolicy<K, V> {
+
+    /**
+     * 写入后经过指定时间过期，读取不会延长存活时间
+     *
+     * @param duration 存活时间
+     * @param unit     时间单位
+     * @return 返回 {@link ExpiryPolicy}
+     */
+    static <K, V> ExpiryPolicy<K, V> afterWrite(long duration, TimeUnit unit) {
+        return new AfterWrite<>(unit.toNanos(duration));
+    }
+
+    /**
+     * 最后一次读取或写入后经过指定时间过期
+     *
+     * @param duration 存活时间
+     * @param unit     时间单位
+     * @return 返回 {@link ExpiryPolicy}
+     */
+    static <K, V> ExpiryPolicy<K, V> afterAccess(long duration, TimeUnit unit) {
+        return new AfterAccess<>(unit.toNanos(duration));
+    }
+
+    /**
+     * 计算条目创建后的存活时间
+     *
+     * @param key         键
+     * @param value       值
+     * @param currentTime 当前时间，纳秒
+     * @return 返回存活时间，纳秒
+     */
+    long expireAfterCreate(K key, V value, long currentTime);
+
+    /**
+     * 计算条目更新后的存活时间
+     *
+     * @param key             键
+     * @param value           新的值
+     * @param currentTime     当前时间，纳秒
+     * @param currentDuration 当前剩余存活时间，纳秒
+     * @return 返回存活时间，纳秒，返回 {@code currentDuration} 表示不修改
+     */
+    long expireAfterUpdate(K key, V value, long currentTime, long currentDuration);
+
+    /**
+     * 计算条目读取后的存活时间
+     *
+     * @param key             键
+     * @param value           值
+     * @param currentTime     当前时间，纳秒
+     * @param currentDuration 当前剩余存活时间，纳秒
+     * @return 返回存活时间，纳秒，返回 {@code currentDuration} 表示不修改
+     */
+    long expireAfterRead(K key, V value, long currentTime, long currentDuration);
+
+    final class AfterWrite<K, V> implements ExpiryPolicy<K, V> {
+        private final long duration;
+
+        private AfterWrite(long duration) {
+            Arg.check(duration >= 0, () -> "The duration must greater then or equal 0,but the value is '" + duration + "'");
+            this.duration = duration;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return duration;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return duration;
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    final class AfterAccess<K, V> implements ExpiryPolicy<K, V> {
+        private final long duration;
+
+        private AfterAccess(long duration) {
+            Arg.check(duration >= 0, () -> "The duration must greater then or equal 0,but the value is '" + duration + "'");
+            this.duration = duration;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, V value, long currentTime) {
+            return duration;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, V value, long currentTime, long currentDuration) {
+            return duration;
+        }
+
+        @Override
+        public long expireAfterRead(K key, V value, long currentTime, long currentDuration) {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 日志结构的文件存储，值追加写入内存映射的段文件，内存中只保存键到位置的索引。
+ * 读操作无锁，写操作串行执行，死空间占比超过一半时压缩，将存活记录复制到活动段后删除旧段。
+ * 段文件只在此对象的生命周期内有效，打开时会删除目录中遗留的段文件。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class LogStructuredStore<K> implements Closeable {
+    /*
+     * A record is a 4 byte length followed by the value bytes. The index maps each key to the packed
+     * location (segment id << 32 | offset) of its latest record, and overwritten or removed records
+     * become dead space counted per segment. Segments are never reused: compaction copies the live
+     * records of the sparse segments into the active one, swings the index and drops the old
+     * segments. A reader that loaded a location just before its segment was dropped finds the segment
+     * missing and reloads the location from the index; the old mapping stays valid for readers that
+     * already hold it, since it is released only when unreachable.
+     */
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = Integer.BYTES;
+    private static final double COMPACTION_THRESHOLD = 0.5d;
+    private final File directory;
+    private final int segmentSize;
+    private final ConcurrentHashMap<K, Long> index = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Segment active;
+    private int nextSegmentId;
+    private long liveBytes;
+    private long fileBytes;
+
+    /**
+     * @param directory   段文件目录
+     * @param segmentSize 段文件大小，字节
+     * @throws IOException 如果无法创建目录或段文件
+     */
+    LogStructuredStore(File directory, int segmentSize) throws IOException {
+        Arg.check(segmentSize > HEADER, () -> "The segment size must greater then " + HEADER + ",but the value is '" + segmentSize + "'");
+        this.directory = Objects.requireNonNull(directory, "The directory must be not null");
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory '" + directory + "'");
+        }
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                delete(file);
+            }
+        }
+        this.active = newSegment();
+    }
+
+    /**
+     * 读取值，不加锁
+     *
+     * @param key 键
+     * @return 返回值的字节，如果不存在返回null
+     */
+    byte[] read(Object key) {
+        Long location = index.get(key);
+        while (location != null) {
+            Segment segment = segments.get(segmentId(location));
+            if (segment != null) {
+                return segment.read(offset(location));
+            }
+            //段已被压缩，重新读取位置
+            Long current = index.get(key);
+            if (location.equals(current)) return null;
+            location = current;
+        }
+        return null;
+    }
+
+    /**
+     * 追加写入值，替换之前的值
+     *
+     * @param key   键
+     * @param bytes 值的字节，从当前位置读取到上限
+     * @return 如果写入返回true，值超过段大小时移除之前的值并返回false
+     */
+    boolean write(K key, ByteBuffer bytes) {
+        int length = bytes.remaining();
+        writeLock.lock();
+        try {
+            if ((long) length + HEADER > segmentSize) {
+                discard(index.remove(key));
+                return false;
+            }
+            discard(index.put(key, append(bytes)));
+            compactIfNeeded();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 移除值
+     *
+     * @param key 键
+     * @return 返回被移除的值的字节，如果不存在返回null
+     */
+    byte[] remove(Object key) {
+        writeLock.lock();
+        try {
+            Long location = index.remove(key);
+            if (location == null) return null;
+            byte[] bytes = segments.get(segmentId(location)).read(offset(location));
+            discard(location);
+            return bytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 移除所有值并删除所有段文件
+     */
+    void clear() {
+        writeLock.lock();
+        try {
+            index.clear();
+            dropAll();
+            active = newSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 压缩存活记录占比低于一半的段
+     */
+    void compact() {
+        writeLock.lock();
+        try {
+            List<Segment> sparse = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.liveBytes < segment.position * COMPACTION_THRESHOLD) {
+                    sparse.add(segment);
+                }
+            }
+            if (sparse.isEmpty()) return;
+            for (Map.Entry<K, Long> entry : index.entrySet()) {
+                Segment segment = segments.get(segmentId(entry.getValue()));
+                if (sparse.contains(segment)) {
+                    byte[] bytes = segment.read(offset(entry.getValue()));
+                    long location = append(ByteBuffer.wrap(bytes));
+                    entry.setValue(location);
+                    segment.liveBytes -= HEADER + bytes.length;
+                    liveBytes -= HEADER + bytes.length;
+                }
+            }
+            for (Segment segment : sparse) {
+                segments.remove(segment.id);
+                fileBytes -= segment.position;
+                delete(segment.file);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获取值的数量
+     *
+     * @return 返回值的数量
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * 获取存活记录的字节数
+     *
+     * @return 返回字节数
+     */
+    long liveBytes() {
+        writeLock.lock();
+        try {
+            return liveBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获取段文件已写入的字节数，包括死空间
+     *
+     * @return 返回字节数
+     */
+    long fileBytes() {
+        writeLock.lock();
+        try {
+            return fileBytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            index.clear();
+            dropAll();
+            active = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 追加记录到活动段，空间不足时切换到新段，需要持有写锁
+     *
+     * @return 返回记录的位置
+     */
+    private long append(ByteBuffer bytes) {
+        if (active == null) {
+            throw new IllegalStateException("The store is closed");
+        }
+        int size = HEADER + bytes.remaining();
+        if (segmentSize - active.position < size) {
+            try {
+                active = newSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int offset = active.write(bytes);
+        active.liveBytes += size;
+        liveBytes += size;
+        fileBytes += size;
+        return ((long) active.id << 32) | offset;
+    }
+
+    /**
+     * 将记录标记为死空间，需要持有写锁
+     */
+    private void discard(Long location) {
+        if (location == null) return;
+        Segment segment = segments.get(segmentId(location));
+        int size = HEADER + segment.buffer.getInt(offset(location));
+        segment.liveBytes -= size;
+        liveBytes -= size;
+    }
+
+    /**
+     * 死空间超过一半且超过一个段时压缩，需要持有写锁
+     */
+    private void compactIfNeeded() {
+        if (fileBytes - liveBytes > segmentSize && liveBytes < fileBytes * COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    private Segment newSegment() throws IOException {
+        int id = nextSegmentId++;
+        File file = new File(directory, PREFIX + id + SUFFIX);
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(segmentSize);
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        Segment segment = new Segment(id, file, buffer);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private void dropAll() {
+        for (Segment segment : segments.values()) {
+            delete(segment.file);
+        }
+        segments.clear();
+        liveBytes = 0;
+        fileBytes = 0;
+    }
+
+    private static void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            //映射未释放时部分平台不允许删除
+            file.deleteOnExit();
+        }
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        /**
+         * 只用于读取的视图，状态从不修改，读取时再复制一份
+         */
+        private final ByteBuffer view;
+        private int position;
+        private long liveBytes;
+
+        private Segment(int id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+        }
+
+        private int write(ByteBuffer bytes) {
+            int offset = position;
+            buffer.putInt(offset, bytes.remaining());
+            buffer.position(offset + HEADER);
+            buffer.put(bytes.duplicate());
+            position = buffer.position();
+            return offset;
+        }
+
+        private byte[] read(int offset) {
+            ByteBuffer buffer = view.duplicate();
+            byte[] bytes = new byte[buffer.getInt(offset)];
+            buffer.position(offset + HEADER);
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+import potatoxf.infrastructure.tools.WeigherForSingle;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * 全局内存预算，协调同一个JVM中多个缓存和缓冲池的容量，使它们的权重之和不超过预算，权重的单位为字节。
+ * <p>
+ * 缓存以 {@link BoundedCache} 注册，权重由其 {@link potatoxf.infrastructure.tools.WeigherForTwain} 计算；
+ * 缓冲池以 {@link WeigherForSingle} 注册为 {@link Account}，在分配和释放时报告权重。
+ * 超出预算时按边际命中率从低到高要求缩小；定期再平衡时将容量从边际命中率最低的缓存转移到最高的缓存。
+ * 可以通过 {@link #watchHeap(double)} 在老年代回收后仍超过阈值时主动释放内存。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class MemoryBudget implements Closeable {
+    /*
+     * The marginal hit rate of a cache is the extra hits per interval that one more byte of capacity
+     * buys. Every member is ranked by the same estimate, the measured slope: when the capacity
+     * changed between the last two rebalances, it is the change in hits divided by the change in
+     * capacity; when it did not, the last measured slope is carried forward. A member that received
+     * requests but has no slope yet ranks highest, so the next rebalance resizes it and its slope is
+     * measured one period later; a member without requests has a slope of zero. Each rebalance moves
+     * a small step of the budget from the member with the lowest estimate to the one with the
+     * highest, so over time the allocation climbs toward equal marginal hit rates without any cache
+     * model.
+     */
+
+    /**
+     * 每次再平衡转移的容量占预算的比例
+     */
+    private static final double REBALANCE_STEP = 0.05d;
+    /**
+     * 接收方的边际命中率至少要高出转移方的比例
+     */
+    private static final double REBALANCE_MARGIN = 1.1d;
+    /**
+     * 内存压力下释放的权重比例
+     */
+    private static final double PRESSURE_RELEASE = 0.10d;
+    private final long budget;
+    private final ConcurrentHashMap<String, Member> members = new ConcurrentHashMap<>();
+    private NotificationListener heapListener;
+
+    /**
+     * @param budget 预算，字节
+     */
+    public MemoryBudget(long budget) {
+        Arg.check(budget > 0, () -> "The budget must greater then 0,but the value is '" + budget + "'");
+        this.budget = budget;
+    }
+
+    /**
+     * 注册参与者
+     *
+     * @param name        名称，唯一
+     * @param participant 参与者
+     */
+    public void register(String name, Participant participant) {
+        Objects.requireNonNull(name, "The name must be not null");
+        Objects.requireNonNull(participant, "The participant must be not null");
+        if (members.putIfAbsent(name, new Member(name, participant)) != null) {
+            throw new IllegalArgumentException("The name '" + name + "' is already registered");
+        }
+    }
+
+    /**
+     * 注册缓存，缓存的权重乘以每单位权重的字节数为占用的字节数
+     *
+     * @param name           名称，唯一
+     * @param cache          缓存
+     * @param bytesPerWeight 每单位权重的字节数，缓存按条目数限制时为每个条目的估计字节数
+     */
+    public void register(String name, BoundedCache<?, ?> cache, long bytesPerWeight) {
+        register(name, new CacheParticipant(cache, bytesPerWeight));
+    }
+
+    /**
+     * 创建并注册缓冲池的账户
+     *
+     * @param name     名称，唯一
+     * @param weigher  计算每个元素的字节数
+     * @param shrinker 被要求缩小时调用，参数为需要释放的字节数
+     * @return 返回 {@link Account}
+     */
+    public <T> Account<T> account(String name, WeigherForSingle<? super T> weigher, LongConsumer shrinker) {
+        Account<T> account = new Account<>(weigher, shrinker);
+        register(name, account);
+        return account;
+    }
+
+    /**
+     * 取消注册
+     *
+     * @param name 名称
+     * @return 如果已注册返回true，否则返回false
+     */
+    public boolean unregister(String name) {
+        return members.remove(name) != null;
+    }
+
+    /**
+     * 获取预算
+     *
+     * @return 返回预算，字节
+     */
+    public long budget() {
+        return budget;
+    }
+
+    /**
+     * 获取所有参与者的权重之和
+     *
+     * @return 返回字节数
+     */
+    public long weightedSize() {
+        long total = 0;
+        for (Member member : members.values()) {
+            total += member.participant.weightedSize();
+        }
+        return total;
+    }
+
+    /**
+     * 超出预算时要求边际命中率最低的参与者缩小
+     */
+    public synchronized void enforce() {
+        long excess = weightedSize() - budget;
+        if (excess > 0) {
+            shrink(excess);
+        }
+    }
+
+    /**
+     * 执行预算检查，并将容量从边际命中率最低的缓存转移到最高的缓存，未用完的预算分配给最高的缓存
+     */
+    public synchronized void rebalance() {
+        enforce();
+        List<Member> caches = new ArrayList<>();
+        long allocated = 0;
+        for (Member member : members.values()) {
+            member.updateGain();
+            if (member.participant.capacity() == Long.MAX_VALUE) {
+                allocated += member.participant.weightedSize();
+            } else {
+                allocated += member.participant.capacity();
+                caches.add(member);
+            }
+        }
+        if (caches.isEmpty()) return;
+        caches.sort(Comparator.comparingDouble(Member::rank));
+        Member donor = caches.get(0);
+        Member receiver = caches.get(caches.size() - 1);
+        long step = (long) (budget * REBALANCE_STEP);
+        if (allocated < budget) {
+            receiver.resize(receiver.participant.capacity() + Math.min(step, budget - allocated));
+            return;
+        }
+        //没有测量过斜率的接收方总是接收一次，用于测量斜率
+        if (donor == receiver || (receiver.measured && receiver.gain <= donor.gain * REBALANCE_MARGIN)) return;
+        step = Math.min(step, donor.participant.capacity() / 2);
+        if (step <= 0) return;
+        donor.resize(donor.participant.capacity() - step);
+        receiver.resize(receiver.participant.capacity() + step);
+    }
+
+    /**
+     * 定期执行 {@link #rebalance()}
+     *
+     * @param scheduler 调度器
+     * @param period    周期
+     * @param unit      时间单位
+     * @return 返回调度结果，用于取消
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        Arg.check(period > 0, () -> "The period must greater then 0,but the value is '" + period + "'");
+        return scheduler.scheduleWithFixedDelay(this::rebalance, period, period, unit);
+    }
+
+    /**
+     * 监听堆内存，支持回收后使用量阈值的内存池在回收后仍超过阈值时，要求所有参与者释放一部分权重
+     *
+     * @param fraction 阈值占内存池最大值的比例
+     */
+    public synchronized void watchHeap(double fraction) {
+        Arg.check(fraction > 0 && fraction < 1, () -> "The fraction must between 0 and 1,but the value is '" + fraction + "'");
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * fraction));
+            }
+        }
+        if (heapListener == null) {
+            heapListener = (notification, handback) -> {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                    relieve();
+                }
+            };
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(heapListener, null, null);
+        }
+    }
+
+    /**
+     * 内存压力下要求参与者释放一部分权重，不改变预算
+     */
+    public synchronized void relieve() {
+        long release = (long) (weightedSize() * PRESSURE_RELEASE);
+        if (release > 0) {
+            shrink(release);
+        }
+    }
+
+    /**
+     * 停止监听堆内存
+     */
+    @Override
+    public synchronized void close() {
+        if (heapListener != null) {
+            try {
+                ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(heapListener);
+            } catch (ListenerNotFoundException ignored) {
+                //已经移除
+            }
+            heapListener = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("budget", budget, "weightedSize", weightedSize(), "members", members.keySet());
+    }
+
+    /**
+     * 释放权重，先从边际命中率最低的参与者释放至多一半，仍不足时按权重比例释放，需要持有锁
+     */
+    private void shrink(long amount) {
+        List<Member> ordered = new ArrayList<>(members.values());
+        ordered.sort(Comparator.comparingDouble(Member::rank));
+        long remaining = amount;
+        for (Member member : ordered) {
+            if (remaining <= 0) return;
+            long size = member.participant.weightedSize();
+            long release = Math.min(remaining, size / 2);
+            if (release > 0) {
+                member.resize(size - release);
+                remaining -= release;
+            }
+        }
+        long total = weightedSize();
+        if (remaining <= 0 || total <= 0) return;
+        for (Member member : ordered) {
+            long size = member.participant.weightedSize();
+            long release = (long) Math.ceil((double) remaining * size / total);
+            member.resize(Math.max(0, size - release));
+        }
+    }
+
+    /**
+     * 预算的参与者，权重和容量的单位都是字节
+     */
+    public interface Participant {
+
+        /**
+         * 获取当前占用的权重
+         *
+         * @return 返回字节数
+         */
+        long weightedSize();
+
+        /**
+         * 获取容量，没有容量限制返回 {@link Long#MAX_VALUE}，不参与再平衡
+         *
+         * @return 返回字节数
+         */
+        long capacity();
+
+        /**
+         * 调整容量，小于当前权重时应释放超出的部分
+         *
+         * @param capacity 容量，字节
+         */
+        void resize(long capacity);
+
+        /**
+         * 获取累计命中次数，用于估计边际命中率
+         *
+         * @return 返回命中次数
+         */
+        default long hitCount() {
+            return 0;
+        }
+
+        /**
+         * 获取累计未命中次数，用于估计边际命中率
+         *
+         * @return 返回未命中次数
+         */
+        default long missCount() {
+            return 0;
+        }
+    }
+
+    /**
+     * 缓冲池账户，元素分配和释放时报告权重，没有容量限制，被要求缩小时通知缓冲池释放
+     */
+    public static final class Account<T> implements Participant {
+        private final WeigherForSingle<? super T> weigher;
+        private final LongConsumer shrinker;
+        private final LongAdder weightedSize = new LongAdder();
+
+        private Account(WeigherForSingle<? super T> weigher, LongConsumer shrinker) {
+            this.weigher = Objects.requireNonNull(weigher, "The weigher must be not null");
+            this.shrinker = Objects.requireNonNull(shrinker, "The shrinker must be not null");
+        }
+
+        /**
+         * 报告分配了元素
+         *
+         * @param element 元素
+         */
+        public void add(T element) {
+            weightedSize.add(weigher.weigh(element));
+        }
+
+        /**
+         * 报告释放了元素
+         *
+         * @param element 元素
+         */
+        public void remove(T element) {
+            weightedSize.add(-weigher.weigh(element));
+        }
+
+        @Override
+        public long weightedSize() {
+            return weightedSize.sum();
+        }
+
+        @Override
+        public long capacity() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public void resize(long capacity) {
+            long excess = weightedSize() - capacity;
+            if (excess > 0) {
+                shrinker.accept(excess);
+            }
+        }
+    }
+
+    private static final class CacheParticipant implements Participant {
+        private final BoundedCache<?, ?> cache;
+        private final long bytesPerWeight;
+
+        private CacheParticipant(BoundedCache<?, ?> cache, long bytesPerWeight) {
+            Arg.check(bytesPerWeight > 0, () -> "The bytes per weight must greater then 0,but the value is '" + bytesPerWeight + "'");
+            this.cache = Objects.requireNonNull(cache, "The cache must be not null");
+            this.bytesPerWeight = bytesPerWeight;
+        }
+
+        @Override
+        public long weightedSize() {
+            return cache.weightedSize() * bytesPerWeight;
+        }
+
+        @Override
+        public long capacity() {
+            return cache.maximum() * bytesPerWeight;
+        }
+
+        @Override
+        public void resize(long capacity) {
+            cache.setMaximum(Math.max(0, capacity / bytesPerWeight));
+        }
+
+        @Override
+        public long hitCount() {
+            return cache.hitCount();
+        }
+
+        @Override
+        public long missCount() {
+            return cache.missCount();
+        }
+    }
+
+    private static final class Member {
+        private final String name;
+        private final Participant participant;
+        private long lastHitCount;
+        private long lastMissCount;
+        private long lastCapacity = -1;
+        private double lastHitRate = -1;
+        /**
+         * 估计的边际命中率，每字节每周期增加的命中次数，容量不变时沿用上一次测量的值
+         */
+        private double gain;
+        /**
+         * 是否已经测量过边际命中率
+         */
+        private boolean measured;
+
+        private Member(String name, Participant participant) {
+            this.name = name;
+            this.participant = participant;
+        }
+
+        private void resize(long capacity) {
+            participant.resize(Math.max(0, capacity));
+        }
+
+        /**
+         * 排序使用的边际命中率，有请求但尚未测量过的参与者排在最高
+         */
+        private double rank() {
+            return measured ? gain : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * 根据上一个周期的命中率与容量的变化更新边际命中率，容量没有变化时沿用上一次测量的值
+         */
+        private void updateGain() {
+            long hitCount = participant.hitCount();
+            long missCount = participant.missCount();
+            long capacity = participant.capacity();
+            long hits = hitCount - lastHitCount;
+            long misses = missCount - lastMissCount;
+            long requests = hits + misses;
+            if (requests <= 0) {
+                gain = 0;
+                measured = true;
+            } else {
+                double hitRate = (double) hits / requests;
+                if (lastHitRate >= 0 && lastCapacity >= 0 && capacity != lastCapacity && capacity != Long.MAX_VALUE) {
+                    gain = Math.max(0, requests * (hitRate - lastHitRate) / (capacity - lastCapacity));
+                    measured = true;
+                }
+                lastHitRate = hitRate;
+            }
+            lastHitCount = hitCount;
+            lastMissCount = missCount;
+            lastCapacity = capacity;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+import potatoxf.infrastructure.tools.FrequencySketch;
+import potatoxf.infrastructure.tools.TimeTicker;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程本地的一级前置缓存，每个线程一个很小的直接映射数组，保存该线程最热的键，命中时不访问共享的缓存或映射。
+ * <p>
+ * 键按哈希分为1024个分段，每个分段有一个代数，写操作在修改共享缓存之后递增代数，所有线程的前置缓存中该分段的条目立即失效，
+ * 因此每次写入、替换或移除都会使每个线程前置缓存中约1/1024的条目失效，写入频繁时命中率会相应下降。
+ * 写入不存在的键同样会递增代数，因为被代理缓存可能已经淘汰了该键，而某个线程的前置缓存仍保存着旧值。
+ * 直接修改被代理缓存的写操作不会使前置缓存失效，需要调用 {@link #invalidate(Object)} 或 {@link #invalidateAll()}。
+ * 被代理缓存自行淘汰或过期的条目不会通知前置缓存，前置条目在最大存活时间后失效并重新读取被代理缓存，
+ * 因此被淘汰或过期的值最多在这段时间内仍被返回。
+ * 前置数组中的位置按每个线程自己的 {@link FrequencySketch} 计数决定归属，频次更高的键才能替换已有的键。
+ * 前置数组在线程第一次读取时才创建，从不读取的线程没有任何开销，写操作也不会创建前置数组。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class ThreadLocalFrontCache<K, V> implements Cache<K, V> {
+    /*
+     * A reader loads the generation of the key's stripe before it reads the shared cache and stamps
+     * the slot with it, while a writer bumps the stripe after it changed the shared cache. If the
+     * bump happens after the reader loaded the generation the slot is already stale when it is
+     * stored, otherwise the reader is ordered after the write and saw the new value. A write bumps
+     * the stripe even when the delegate reports no prior value: the delegate may have evicted or
+     * expired the key while a front slot still holds it, so an insert can replace a value that some
+     * thread is still serving.
+     *
+     * Each slot also records when it was filled. Entries evicted or expired by the delegate are not
+     * reported to this wrapper, so a hit is only served while the slot is younger than the maximum
+     * age, which bounds how long such a value can still be returned.
+     *
+     * Misses always count in the thread's sketch, while hits are sampled once every eight, which
+     * keeps a hit down to the thread local lookup and one array probe. Resident keys still gain
+     * frequency as they are used, enough to hold their slot against colder candidates.
+     */
+
+    private static final int STRIPES = 1024;
+    /**
+     * 默认的前置条目最大存活时间，1秒
+     */
+    private static final long DEFAULT_MAXIMUM_AGE = TimeUnit.SECONDS.toNanos(1);
+    private static final int ADMISSION_THRESHOLD = 2;
+    private static final int HIT_SAMPLE_MASK = 7;
+    private final Cache<K, V> delegate;
+    private final int slots;
+    private final long maximumAge;
+    private final TimeTicker ticker;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final ThreadLocal<Front> fronts;
+
+    /**
+     * 前置条目最大存活时间为1秒
+     *
+     * @param delegate 被代理的共享缓存
+     * @param slots    每个线程前置数组的大小，向上取整为2的幂
+     */
+    public ThreadLocalFrontCache(Cache<K, V> delegate, int slots) {
+        this(delegate, slots, DEFAULT_MAXIMUM_AGE, TimeUnit.NANOSECONDS, TimeTicker.systemTicker());
+    }
+
+    /**
+     * 前置条目最大存活时间为1秒
+     *
+     * @param delegate 被代理的共享映射
+     * @param slots    每个线程前置数组的大小，向上取整为2的幂
+     */
+    public ThreadLocalFrontCache(ConcurrentMap<K, V> delegate, int slots) {
+        this(new MapCache<>(Objects.requireNonNull(delegate, "The delegate must be not null")), slots);
+    }
+
+    /**
+     * @param delegate   被代理的共享缓存
+     * @param slots      每个线程前置数组的大小，向上取整为2的幂
+     * @param maximumAge 前置条目最大存活时间，应不超过被代理缓存中条目的存活时间
+     * @param unit       最大存活时间的单位
+     * @param ticker     以纳秒计的时间源
+     */
+    public ThreadLocalFrontCache(Cache<K, V> delegate, int slots, long maximumAge, TimeUnit unit, TimeTicker ticker) {
+        Arg.check(slots > 0 && slots <= (1 << 16), () -> "The slots must between 1 and 65536,but the value is '" + slots + "'");
+        Arg.check(maximumAge > 0, () -> "The maximum age must greater then 0,but the value is '" + maximumAge + "'");
+        this.delegate = Objects.requireNonNull(delegate, "The delegate must be not null");
+        this.maximumAge = Objects.requireNonNull(unit, "The unit must be not null").toNanos(maximumAge);
+        this.ticker = Objects.requireNonNull(ticker, "The ticker must be not null");
+        this.slots = slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1;
+        this.fronts = ThreadLocal.withInitial(() -> new Front(this.slots));
+    }
+
+    /**
+     * 使键在所有线程的前置缓存中失效，用于绕过此对象修改了被代理缓存的情况
+     *
+     * @param key 键
+     */
+    public void invalidate(Object key) {
+        generations.incrementAndGet(stripe(spread(key.hashCode())));
+    }
+
+    /**
+     * 使所有线程的前置缓存失效
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int hash = spread(key.hashCode());
+        long generation = generations.get(stripe(hash));
+        Front front = fronts.get();
+        int slot = hash & front.mask;
+        Object current = front.keys[slot];
+        long now = ticker.read();
+        if (current != null && front.stamps[slot] == generation && now - front.loadTimes[slot] < maximumAge
+                && (current == key || current.equals(key))) {
+            if ((++front.hits & HIT_SAMPLE_MASK) == 0) {
+                front.sketch.incrementHash(hash);
+            }
+            return (V) front.values[slot];
+        }
+        front.sketch.incrementHash(hash);
+        V value = delegate.get(key);
+        if (value != null) {
+            admit(front, slot, key, hash, value, generation, now);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V prior = delegate.put(key, value);
+        invalidate(key);
+        return prior;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V prior = delegate.putIfAbsent(key, value);
+        if (prior == null) {
+            invalidate(key);
+        }
+        return prior;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced = delegate.replace(key, oldValue, newValue);
+        if (replaced) {
+            invalidate(key);
+        }
+        return replaced;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V prior = delegate.remove(key);
+        invalidate(key);
+        return prior;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        boolean removed = delegate.remove(key, value);
+        if (removed) {
+            invalidate(key);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("slots", slots, "maximumAge", maximumAge, "delegate", delegate);
+    }
+
+    /**
+     * 尝试将键放入前置数组，位置为空、已失效或已超过最大存活时间时需要达到准入频次，否则需要比当前的键频次更高
+     */
+    private void admit(Front front, int slot, Object key, int hash, Object value, long generation, long now) {
+        int frequency = front.sketch.frequencyHash(hash);
+        Object current = front.keys[slot];
+        if (current != null && front.stamps[slot] == generations.get(stripe(front.hashes[slot]))
+                && now - front.loadTimes[slot] < maximumAge) {
+            if (frequency <= front.sketch.frequencyHash(front.hashes[slot])) return;
+        } else if (frequency < ADMISSION_THRESHOLD) {
+            return;
+        }
+        front.keys[slot] = key;
+        front.values[slot] = value;
+        front.hashes[slot] = hash;
+        front.stamps[slot] = generation;
+        front.loadTimes[slot] = now;
+    }
+
+    private static int stripe(int hash) {
+        return hash >>> 22;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static final class Front {
+        private final int mask;
+        private final Object[] keys;
+        private final Object[] values;
+        private final int[] hashes;
+        private final long[] stamps;
+        private final long[] loadTimes;
+        private final FrequencySketch sketch = new FrequencySketch();
+        private int hits;
+
+        private Front(int slots) {
+            this.mask = slots - 1;
+            this.keys = new Object[slots];
+            this.values = new Object[slots];
+            this.hashes = new int[slots];
+            this.stamps = new long[slots];
+            this.loadTimes = new long[slots];
+            this.sketch.ensureCapacity(slots);
+        }
+    }
+
+    private static final class MapCache<K, V> implements Cache<K, V> {
+        private final ConcurrentMap<K, V> map;
+
+        private MapCache(ConcurrentMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public V get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return map.put(key, value);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return map.putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return map.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return map.remove(key, value);
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public long size() {
+            return map.size();
+        }
+
+        @Override
+        public String toString() {
+            return map.toString();
+        }
+    }
+}
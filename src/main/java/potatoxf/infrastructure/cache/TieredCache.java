@@ -0,0 +1,381 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.api.support.Com;
+import potatoxf.api.support.Log;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.CounterForInquireDelegate;
+import potatoxf.infrastructure.tools.FrequencyEstimator;
+import potatoxf.infrastructure.tools.TimeTicker;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+import potatoxf.infrastructure.value.BinaryVal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 两级缓存，堆内一级为按权重限制的 {@link BoundedCache}，被淘汰的条目序列化后溢出到内存映射的日志结构文件二级。
+ * <p>
+ * 值通过编码函数转换为 {@link BinaryVal}，以其字节写入文件；读取时包装为 {@link BinaryVal} 交给解码函数。
+ * 堆内未命中而文件命中时只需要一次内存映射读取和解码，条目被提升回堆内，并从文件中移除。
+ * 被淘汰的条目先暂存在内存中，由之后的写操作在堆的淘汰锁之外写入文件，文件读写不会阻塞堆内的写操作。
+ * 编码或写入失败的条目会被丢弃并记录日志。
+ * 同一个键的跨级操作按键分段加锁，堆内命中不加锁。
+ * 条目在两级之间移动时 {@link #size()} 可能短暂地重复计算。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class TieredCache<K, V> implements Cache<K, V>, CounterForInquireDelegate, Closeable {
+    /*
+     * The heap's eviction listener runs under the heap's eviction lock, so it only stages the evicted
+     * value in a map and queues the key; no encoding or file I/O happens there. Every operation that
+     * may evict drains the queue after releasing its own stripe lock, and settles each queued key
+     * under that key's stripe lock: the staged value is written to the file unless the heap holds
+     * the key again, in which case the heap value is newer and the staged one is dropped. Until it
+     * is settled a staged value is the key's second tier: reads promote it before looking at the
+     * file, and writes and removals discard it together with the file record. Every operation that
+     * moves a key between the tiers holds the key's stripe lock.
+     */
+
+    private static final int STRIPES = 64;
+    /**
+     * 默认段文件大小，64MB
+     */
+    private static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    private final BoundedCache<K, V> heap;
+    private final LogStructuredStore<K> file;
+    private final Function<? super V, ? extends BinaryVal> encoder;
+    private final Function<? super BinaryVal, ? extends V> decoder;
+    private final CounterForInquire counterForInquire;
+    private final LongAdder fileHitCount = new LongAdder();
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    /**
+     * 已被堆淘汰但尚未写入文件的条目
+     */
+    private final ConcurrentHashMap<K, V> staged = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<K> spillQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 值为 {@link BinaryVal} 的两级缓存，权重为字节数，段文件大小为64MB
+     *
+     * @param maximumWeight 堆内最大字节数
+     * @param directory     段文件目录
+     * @return 返回 {@link TieredCache}
+     * @throws IOException 如果无法创建段文件
+     */
+    public static <K> TieredCache<K, BinaryVal> binary(long maximumWeight, File directory) throws IOException {
+        return new TieredCache<>(maximumWeight, (key, value) -> value.getValue().length, directory, DEFAULT_SEGMENT_SIZE,
+                Function.identity(), Function.identity());
+    }
+
+    /**
+     * @param maximumWeight 堆内最大权重
+     * @param weigher       权重计算器
+     * @param directory     段文件目录，遗留的段文件会被删除
+     * @param segmentSize   段文件大小，字节，超过该大小的值不会溢出
+     * @param encoder       值编码函数
+     * @param decoder       值解码函数
+     * @throws IOException 如果无法创建段文件
+     */
+    public TieredCache(long maximumWeight, WeigherForTwain<K, V> weigher, File directory, int segmentSize,
+                       Function<? super V, ? extends BinaryVal> encoder, Function<? super BinaryVal, ? extends V> decoder) throws IOException {
+        this.encoder = Objects.requireNonNull(encoder, "The encoder must be not null");
+        this.decoder = Objects.requireNonNull(decoder, "The decoder must be not null");
+        this.counterForInquire = CounterForInquire.of();
+        this.file = new LogStructuredStore<>(directory, segmentSize);
+        this.heap = new BoundedCache<>(maximumWeight, weigher, CounterForInquire.DISABLE, FrequencyEstimator.of(),
+                null, TimeTicker.disabledTicker(), (key, value, weight) -> stage(key, value));
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 获取代理 {@link CounterForInquire}，命中包括堆内命中和文件命中
+     *
+     * @return 返回代理{@link CounterForInquire}
+     */
+    @Override
+    public CounterForInquire delegateCounterForInquire() {
+        return counterForInquire;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        V value = heap.get(key);
+        if (value != null) {
+            counterForInquire.recordHit(1);
+            return value;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            value = heap.get(key);
+            if (value == null) {
+                value = promote((K) key);
+            }
+        } finally {
+            lock.unlock();
+            drainSpills();
+        }
+        if (value == null) {
+            counterForInquire.recordMiss(1);
+        } else {
+            counterForInquire.recordHit(1);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(value, "The value must be not null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            V stagedValue = staged.remove(key);
+            byte[] spilled = file.remove(key);
+            V prior = heap.put(key, value);
+            if (prior != null || stagedValue != null) return prior != null ? prior : stagedValue;
+            return spilled == null ? null : decode(spilled);
+        } finally {
+            lock.unlock();
+            drainSpills();
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(value, "The value must be not null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            V current = heap.get(key);
+            if (current == null) {
+                current = promote(key);
+            }
+            if (current == null) {
+                heap.put(key, value);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+            drainSpills();
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue, "The old value must be not null");
+        Objects.requireNonNull(newValue, "The new value must be not null");
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            settle(key);
+            if (heap.get(key) == null) {
+                byte[] spilled = file.read(key);
+                if (spilled == null || !decode(spilled).equals(oldValue)) return false;
+                file.remove(key);
+                heap.put(key, newValue);
+                return true;
+            }
+            return heap.replace(key, oldValue, newValue);
+        } finally {
+            lock.unlock();
+            drainSpills();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            V prior = heap.remove(key);
+            V stagedValue = staged.remove(key);
+            byte[] spilled = file.remove(key);
+            if (prior != null || stagedValue != null) return prior != null ? prior : stagedValue;
+            return spilled == null ? null : decode(spilled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            settle(key);
+            if (heap.get(key) != null) {
+                if (!heap.remove(key, value)) return false;
+                file.remove(key);
+                return true;
+            }
+            byte[] spilled = file.read(key);
+            if (spilled == null || !decode(spilled).equals(value)) return false;
+            file.remove(key);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+        spillQueue.clear();
+        staged.clear();
+        file.clear();
+    }
+
+    /**
+     * 获取两级的条目数之和，包括尚未写入文件的条目
+     *
+     * @return 返回缓存条目数
+     */
+    @Override
+    public long size() {
+        return heap.size() + staged.size() + file.size();
+    }
+
+    /**
+     * 获取堆内条目数
+     *
+     * @return 返回堆内条目数
+     */
+    public long heapSize() {
+        return heap.size();
+    }
+
+    /**
+     * 获取文件中的条目数，包括尚未写入文件的条目
+     *
+     * @return 返回文件中的条目数
+     */
+    public long fileSize() {
+        return staged.size() + file.size();
+    }
+
+    /**
+     * 获取文件命中次数，即堆内未命中而从文件提升的次数
+     *
+     * @return 返回文件命中次数
+     */
+    public long fileHitCount() {
+        return fileHitCount.sum();
+    }
+
+    /**
+     * 获取段文件已写入的字节数，包括等待压缩的死空间
+     *
+     * @return 返回字节数
+     */
+    public long fileBytes() {
+        return file.fileBytes();
+    }
+
+    /**
+     * 立即压缩死空间超过一半的段文件，写入时也会自动压缩
+     */
+    public void compact() {
+        file.compact();
+    }
+
+    /**
+     * 清空缓存并删除所有段文件
+     *
+     * @throws IOException 如果删除失败
+     */
+    @Override
+    public void close() throws IOException {
+        heap.clear();
+        spillQueue.clear();
+        staged.clear();
+        file.close();
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("heapSize", heapSize(), "fileSize", fileSize(), "fileBytes", fileBytes(),
+                "hitCount", hitCount(), "missCount", missCount(), "fileHitCount", fileHitCount());
+    }
+
+    /**
+     * 从暂存或文件中读取并提升到堆内，需要持有键的锁
+     *
+     * @return 返回值，如果不存在返回null
+     */
+    private V promote(K key) {
+        V value = staged.remove(key);
+        byte[] spilled = file.remove(key);
+        if (value == null) {
+            if (spilled == null) return null;
+            value = decode(spilled);
+        }
+        fileHitCount.increment();
+        heap.put(key, value);
+        return value;
+    }
+
+    /**
+     * 堆内淘汰时暂存，在堆的淘汰锁下调用，不进行编码和文件读写
+     */
+    private void stage(K key, V value) {
+        staged.put(key, value);
+        spillQueue.add(key);
+    }
+
+    /**
+     * 将暂存的条目写入文件，调用时不能持有其它键的锁
+     */
+    private void drainSpills() {
+        K key;
+        while ((key = spillQueue.poll()) != null) {
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            try {
+                settle(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 将键的暂存条目写入文件，如果堆内已有更新的值则丢弃，需要持有键的锁
+     */
+    @SuppressWarnings("unchecked")
+    private void settle(Object key) {
+        V value = staged.remove(key);
+        if (value == null || heap.containsKey(key)) return;
+        try {
+            file.write((K) key, ByteBuffer.wrap(encoder.apply(value).getValue()));
+        } catch (RuntimeException e) {
+            if (Log.isEnabledWarn()) {
+                Log.warn("Error to spill the value with key '" + key + "',the entry is discarded", e);
+            }
+        }
+    }
+
+    private V decode(byte[] bytes) {
+        return decoder.apply(BinaryVal.of(bytes));
+    }
+
+    private ReentrantLock lockFor(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return locks[(h * 0x9E3779B9) >>> 26];
+    }
+}
@@ -0,0 +1,273 @@
+package potatoxf.infrastructure.cache;
+
+import potatoxf.infrastructure.tools.TimeTicker;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，按秒、分、时、天分层的桶保存定时器，调度、重新调度、取消都是O(1)。
+ * 时间由 {@link TimeTicker} 提供，单位为纳秒，如 {@link TimeTicker#systemTicker()}。
+ * 请注意，此对象不是为线程安全而设计的，需要外部同步。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class TimerWheel<T extends TimerWheel.Timer> {
+    /*
+     * A hierarchical timing wheel [1]. Each level is an array of buckets, and each bucket is a circular
+     * doubly linked list with a sentinel, so linking and unlinking a timer is O(1). A timer is placed
+     * in the finest level whose span covers its remaining delay, in the bucket indexed by its
+     * expiration time shifted by that level's tick. The spans are powers of two close to a second, a
+     * minute, an hour and a day, so bucket selection is a shift and a mask instead of a division.
+     *
+     * Advancing the wheel visits, per level, only the buckets whose ticks elapsed since the previous
+     * advance. Every timer of a visited bucket is detached; the ones that are due are handed to the
+     * caller and the others cascade down into a finer level. The work is therefore proportional to
+     * the expired timers and the elapsed buckets, and reclamation happens in batches per tick.
+     *
+     * [1] Hashed and Hierarchical Timing Wheels
+     * http://www.cs.columbia.edu/~nahum/w6998/papers/ton97-timing-wheels.pdf
+     */
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS = {
+            ceilingPowerOfTwo(TimeUnit.SECONDS.toNanos(1)), // 1.07s
+            ceilingPowerOfTwo(TimeUnit.MINUTES.toNanos(1)), // 1.14m
+            ceilingPowerOfTwo(TimeUnit.HOURS.toNanos(1)),   // 1.22h
+            ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)),    // 1.63d
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)), // 6.5d
+            BUCKETS[3] * ceilingPowerOfTwo(TimeUnit.DAYS.toNanos(1)), // 6.5d
+    };
+    private static final long[] SHIFT = {
+            Long.numberOfTrailingZeros(SPANS[0]),
+            Long.numberOfTrailingZeros(SPANS[1]),
+            Long.numberOfTrailingZeros(SPANS[2]),
+            Long.numberOfTrailingZeros(SPANS[3]),
+            Long.numberOfTrailingZeros(SPANS[4]),
+    };
+    private final TimeTicker ticker;
+    private final Timer[][] wheel;
+    private long time;
+
+    /**
+     * @param ticker 纳秒时间源
+     */
+    public TimerWheel(TimeTicker ticker) {
+        this.ticker = Objects.requireNonNull(ticker, "The ticker must be not null");
+        this.wheel = new Timer[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Timer[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = new Sentinel();
+            }
+        }
+        this.time = ticker.read();
+    }
+
+    /**
+     * 获取时间轮最后一次推进到的时间
+     *
+     * @return 返回时间，纳秒
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * 按时间源的当前时间推进时间轮
+     *
+     * @param expiredAction 处理到期的定时器，定时器在调用之前已经从时间轮中移除
+     */
+    public void advance(Consumer<? super T> expiredAction) {
+        advance(ticker.read(), expiredAction);
+    }
+
+    /**
+     * 推进时间轮到指定时间
+     *
+     * @param currentTime   当前时间，纳秒
+     * @param expiredAction 处理到期的定时器，定时器在调用之前已经从时间轮中移除
+     */
+    public void advance(long currentTime, Consumer<? super T> expiredAction) {
+        long previousTime = time;
+        time = currentTime;
+        //时间溢出时临时平移，保证比较为正
+        if ((previousTime < 0) && (currentTime > 0)) {
+            previousTime += Long.MAX_VALUE;
+            currentTime += Long.MAX_VALUE;
+        }
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = (previousTime >>> SHIFT[i]);
+            long currentTicks = (currentTime >>> SHIFT[i]);
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) break;
+            expire(i, previousTicks, delta, expiredAction);
+        }
+    }
+
+    /**
+     * 调度定时器，定时器不能已经被调度
+     *
+     * @param timer          定时器
+     * @param expirationTime 到期时间，纳秒
+     */
+    public void schedule(T timer, long expirationTime) {
+        timer.setExpirationTime(expirationTime);
+        link(findBucket(expirationTime), timer);
+    }
+
+    /**
+     * 重新调度定时器，如果定时器未被调度则调度它
+     *
+     * @param timer          定时器
+     * @param expirationTime 到期时间，纳秒
+     */
+    public void reschedule(T timer, long expirationTime) {
+        unlink(timer);
+        schedule(timer, expirationTime);
+    }
+
+    /**
+     * 取消定时器，如果定时器未被调度则不做任何事
+     *
+     * @param timer 定时器
+     */
+    public void cancel(T timer) {
+        unlink(timer);
+    }
+
+    /**
+     * 取消所有定时器
+     */
+    public void clear() {
+        for (Timer[] buckets : wheel) {
+            for (Timer sentinel : buckets) {
+                Timer timer = sentinel.nextInTime;
+                while (timer != sentinel) {
+                    Timer next = timer.nextInTime;
+                    timer.previousInTime = null;
+                    timer.nextInTime = null;
+                    timer = next;
+                }
+                sentinel.previousInTime = sentinel;
+                sentinel.nextInTime = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 处理一层中已经经过的桶，到期的定时器交给调用者，未到期的定时器重新调度到更细的层
+     */
+    @SuppressWarnings("unchecked")
+    private void expire(int index, long previousTicks, long delta, Consumer<? super T> expiredAction) {
+        Timer[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        for (int i = start; i < end; i++) {
+            Timer sentinel = buckets[i & mask];
+            Timer timer = sentinel.nextInTime;
+            sentinel.previousInTime = sentinel;
+            sentinel.nextInTime = sentinel;
+            while (timer != sentinel) {
+                Timer next = timer.nextInTime;
+                timer.previousInTime = null;
+                timer.nextInTime = null;
+                if (timer.expirationTime - time > 0) {
+                    link(findBucket(timer.expirationTime), timer);
+                } else {
+                    expiredAction.accept((T) timer);
+                }
+                timer = next;
+            }
+        }
+    }
+
+    /**
+     * 查找到期时间所在的桶
+     */
+    private Timer findBucket(long expirationTime) {
+        long duration = Math.max(0L, expirationTime - time);
+        if (duration == 0L) {
+            expirationTime = time;
+        }
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = (expirationTime >>> SHIFT[i]);
+                return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+            }
+        }
+        return wheel[length][0];
+    }
+
+    private static void link(Timer sentinel, Timer timer) {
+        timer.previousInTime = sentinel.previousInTime;
+        timer.nextInTime = sentinel;
+        sentinel.previousInTime.nextInTime = timer;
+        sentinel.previousInTime = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        Timer next = timer.nextInTime;
+        if (next != null) {
+            Timer prev = timer.previousInTime;
+            next.previousInTime = prev;
+            prev.nextInTime = next;
+            timer.previousInTime = null;
+            timer.nextInTime = null;
+        }
+    }
+
+    private static long ceilingPowerOfTwo(long x) {
+        return 1L << -Long.numberOfLeadingZeros(x - 1);
+    }
+
+    /**
+     * 时间轮中的定时器，通过继承嵌入到条目中，不需要额外分配
+     */
+    public abstract static class Timer {
+        private volatile long expirationTime;
+        private Timer previousInTime;
+        private Timer nextInTime;
+
+        /**
+         * 获取到期时间
+         *
+         * @return 返回到期时间，纳秒
+         */
+        public long getExpirationTime() {
+            return expirationTime;
+        }
+
+        /**
+         * 设置到期时间，不改变在时间轮中的位置，推进时间轮时未到期的定时器会被重新调度
+         *
+         * @param expirationTime 到期时间，纳秒
+         */
+        public void setExpirationTime(long expirationTime) {
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * 是否已被调度
+         *
+         * @return 如果已被调度返回true，否则返回false
+         */
+        public boolean isScheduled() {
+            return nextInTime != null;
+        }
+    }
+
+    private static final class Sentinel extends Timer {
+        private Sentinel() {
+            Timer self = this;
+            self.previousInTime = self;
+            self.nextInTime = self;
+        }
+    }
+}
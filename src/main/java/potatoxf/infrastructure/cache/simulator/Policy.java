@@ -0,0 +1,68 @@
+package potatoxf.infrastructure.cache.simulator;
+
+/**
+ * 模拟的淘汰策略，按条目数限制容量，未命中时总是插入
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ * @see Simulator
+ */
+public interface Policy {
+
+    /**
+     * 最近最少使用
+     *
+     * @param maximumSize 最大条目数
+     * @return 返回 {@link Policy}
+     */
+    static Policy lru(int maximumSize) {
+        return new PolicyForLru(maximumSize);
+    }
+
+    /**
+     * 最不经常使用，频次相同时淘汰最久未使用的
+     *
+     * @param maximumSize 最大条目数
+     * @return 返回 {@link Policy}
+     */
+    static Policy lfu(int maximumSize) {
+        return new PolicyForLfu(maximumSize);
+    }
+
+    /**
+     * W-TinyLFU，直接回放到使用 {@link potatoxf.infrastructure.tools.FrequencySketch} 的
+     * {@link potatoxf.infrastructure.cache.BoundedCache}
+     *
+     * @param maximumSize 最大条目数
+     * @return 返回 {@link Policy}
+     */
+    static Policy tinyLfu(int maximumSize) {
+        return new PolicyForTinyLfu(maximumSize);
+    }
+
+    /**
+     * 自适应替换缓存
+     *
+     * @param maximumSize 最大条目数
+     * @return 返回 {@link Policy}
+     */
+    static Policy arc(int maximumSize) {
+        return new PolicyForArc(maximumSize);
+    }
+
+    /**
+     * 获取策略名称
+     *
+     * @return 返回策略名称
+     */
+    String name();
+
+    /**
+     * 记录一次访问，未命中时插入键
+     *
+     * @param key 键
+     * @return 如果命中返回true，否则返回false
+     */
+    boolean record(long key);
+}
@@ -0,0 +1,103 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import potatoxf.api.support.Arg;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * 自适应替换缓存淘汰策略
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class PolicyForArc implements Policy {
+    /*
+     * ARC [1] keeps two resident lists, T1 for keys seen once recently and T2 for keys seen at least
+     * twice, and two ghost lists B1 and B2 holding only the keys recently evicted from them. A hit in
+     * a ghost list shows which resident list was too small, and the target size p of T1 moves toward
+     * it. Each list is a LinkedHashSet in insertion order, so the head is the least recently used.
+     *
+     * [1] ARC: A Self-Tuning, Low Overhead Replacement Cache
+     * https://www.usenix.org/legacy/events/fast03/tech/full_papers/megiddo/megiddo.pdf
+     */
+
+    private final int maximumSize;
+    private final LinkedHashSet<Long> t1 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> t2 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> b1 = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> b2 = new LinkedHashSet<>();
+    private int p;
+
+    PolicyForArc(int maximumSize) {
+        Arg.check(maximumSize > 0, () -> "The maximum size must greater then 0,but the value is '" + maximumSize + "'");
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public String name() {
+        return "ARC";
+    }
+
+    @Override
+    public boolean record(long key) {
+        Long k = key;
+        if (t1.remove(k) || t2.remove(k)) {
+            t2.add(k);
+            return true;
+        }
+        if (b1.remove(k)) {
+            p = Math.min(maximumSize, p + Math.max(b2.size() / (b1.size() + 1), 1));
+            replace(false);
+            t2.add(k);
+            return false;
+        }
+        if (b2.remove(k)) {
+            p = Math.max(0, p - Math.max(b1.size() / (b2.size() + 1), 1));
+            replace(true);
+            t2.add(k);
+            return false;
+        }
+        int l1 = t1.size() + b1.size();
+        if (l1 >= maximumSize) {
+            if (t1.size() < maximumSize) {
+                removeFirst(b1);
+                replace(false);
+            } else {
+                removeFirst(t1);
+            }
+        } else {
+            int total = l1 + t2.size() + b2.size();
+            if (total >= maximumSize) {
+                if (total >= 2 * maximumSize) {
+                    removeFirst(b2);
+                }
+                replace(false);
+            }
+        }
+        t1.add(k);
+        return false;
+    }
+
+    /**
+     * 在缓存已满时从T1或T2淘汰一个键到对应的幽灵列表
+     */
+    private void replace(boolean inB2) {
+        if (t1.size() + t2.size() < maximumSize) return;
+        if (!t1.isEmpty() && (t1.size() > p || (inB2 && t1.size() == p))) {
+            b1.add(removeFirst(t1));
+        } else if (!t2.isEmpty()) {
+            b2.add(removeFirst(t2));
+        } else {
+            b1.add(removeFirst(t1));
+        }
+    }
+
+    private static Long removeFirst(LinkedHashSet<Long> list) {
+        Iterator<Long> iterator = list.iterator();
+        Long key = iterator.next();
+        iterator.remove();
+        return key;
+    }
+}
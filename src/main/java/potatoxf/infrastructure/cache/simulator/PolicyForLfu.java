@@ -0,0 +1,65 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import potatoxf.api.support.Arg;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * 最不经常使用淘汰策略，每个频次一个按访问顺序的集合，访问和淘汰都是O(1)
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class PolicyForLfu implements Policy {
+    private final int maximumSize;
+    private final Map<Long, Integer> frequencies = new HashMap<>();
+    private final Map<Integer, LinkedHashSet<Long>> buckets = new HashMap<>();
+    private int minimumFrequency;
+
+    PolicyForLfu(int maximumSize) {
+        Arg.check(maximumSize > 0, () -> "The maximum size must greater then 0,but the value is '" + maximumSize + "'");
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public String name() {
+        return "LFU";
+    }
+
+    @Override
+    public boolean record(long key) {
+        Long k = key;
+        Integer frequency = frequencies.get(k);
+        if (frequency != null) {
+            LinkedHashSet<Long> bucket = buckets.get(frequency);
+            bucket.remove(k);
+            if (bucket.isEmpty()) {
+                buckets.remove(frequency);
+                if (minimumFrequency == frequency) {
+                    minimumFrequency++;
+                }
+            }
+            frequencies.put(k, frequency + 1);
+            buckets.computeIfAbsent(frequency + 1, f -> new LinkedHashSet<>()).add(k);
+            return true;
+        }
+        if (frequencies.size() >= maximumSize) {
+            LinkedHashSet<Long> bucket = buckets.get(minimumFrequency);
+            Iterator<Long> iterator = bucket.iterator();
+            Long victim = iterator.next();
+            iterator.remove();
+            if (bucket.isEmpty()) {
+                buckets.remove(minimumFrequency);
+            }
+            frequencies.remove(victim);
+        }
+        frequencies.put(k, 1);
+        buckets.computeIfAbsent(1, f -> new LinkedHashSet<>()).add(k);
+        minimumFrequency = 1;
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import potatoxf.api.support.Arg;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最近最少使用淘汰策略
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class PolicyForLru implements Policy {
+    private final Map<Long, Boolean> data;
+
+    PolicyForLru(int maximumSize) {
+        Arg.check(maximumSize > 0, () -> "The maximum size must greater then 0,but the value is '" + maximumSize + "'");
+        this.data = new LinkedHashMap<Long, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "LRU";
+    }
+
+    @Override
+    public boolean record(long key) {
+        return data.put(key, Boolean.TRUE) != null;
+    }
+}
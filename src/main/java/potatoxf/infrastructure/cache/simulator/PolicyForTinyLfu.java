@@ -0,0 +1,36 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import potatoxf.api.support.Arg;
+import potatoxf.infrastructure.cache.BoundedCache;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.FrequencySketch;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+/**
+ * W-TinyLFU淘汰策略，回放到真实的 {@link BoundedCache}，包括有损读缓冲区的影响
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class PolicyForTinyLfu implements Policy {
+    private final BoundedCache<Long, Boolean> cache;
+
+    PolicyForTinyLfu(int maximumSize) {
+        Arg.check(maximumSize > 0, () -> "The maximum size must greater then 0,but the value is '" + maximumSize + "'");
+        this.cache = new BoundedCache<>(maximumSize, WeigherForTwain.singleton(), CounterForInquire.DISABLE, new FrequencySketch());
+    }
+
+    @Override
+    public String name() {
+        return "W-TinyLFU";
+    }
+
+    @Override
+    public boolean record(long key) {
+        Long k = key;
+        if (cache.get(k) != null) return true;
+        cache.put(k, Boolean.TRUE);
+        return false;
+    }
+}
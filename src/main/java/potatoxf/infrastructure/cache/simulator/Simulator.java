@@ -0,0 +1,170 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import lombok.Getter;
+import potatoxf.api.support.Com;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 淘汰策略模拟器，将 {@link Trace} 回放到 {@link Policy}，统计命中率、加权命中率和吞吐量。
+ * 加权命中率为命中的权重之和除以所有请求的权重之和，每条记录的权重由 {@link WeigherForTwain} 根据键和记录的权重计算。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class Simulator {
+    private final Trace trace;
+    private final WeigherForTwain<Long, Integer> weigher;
+
+    /**
+     * 使用轨迹中记录的权重
+     *
+     * @param trace 轨迹
+     */
+    public Simulator(Trace trace) {
+        this(trace, (key, weight) -> weight);
+    }
+
+    /**
+     * @param trace   轨迹
+     * @param weigher 根据键和记录的权重计算权重
+     */
+    public Simulator(Trace trace, WeigherForTwain<Long, Integer> weigher) {
+        this.trace = Objects.requireNonNull(trace, "The trace must be not null");
+        this.weigher = WeigherForTwain.boundedDelegate(Objects.requireNonNull(weigher, "The weigher must be not null"));
+    }
+
+    /**
+     * 回放轨迹到多个策略，策略依次执行
+     *
+     * @param policies 策略，每个策略都应是新创建的
+     * @return 返回按策略顺序的报告
+     */
+    public List<Report> run(Collection<? extends Policy> policies) {
+        long[] weights = weights();
+        List<Report> reports = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            reports.add(run(policy, weights));
+        }
+        return reports;
+    }
+
+    /**
+     * 回放轨迹到策略
+     *
+     * @param policy 策略，应是新创建的
+     * @return 返回报告
+     */
+    public Report run(Policy policy) {
+        return run(policy, weights());
+    }
+
+    private Report run(Policy policy, long[] weights) {
+        Objects.requireNonNull(policy, "The policy must be not null");
+        int size = trace.size();
+        boolean[] hits = new boolean[size];
+        //只计时策略本身，权重在回放前后计算
+        long start = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            hits[i] = policy.record(trace.key(i));
+        }
+        long elapsed = System.nanoTime() - start;
+        long hitCount = 0;
+        long hitWeight = 0;
+        long totalWeight = 0;
+        for (int i = 0; i < size; i++) {
+            totalWeight += weights[i];
+            if (hits[i]) {
+                hitCount++;
+                hitWeight += weights[i];
+            }
+        }
+        return new Report(policy.name(), size, hitCount, hitWeight, totalWeight, elapsed);
+    }
+
+    private long[] weights() {
+        long[] weights = new long[trace.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weigher.weigh(trace.key(i), trace.weight(i));
+        }
+        return weights;
+    }
+
+    /**
+     * 模拟报告
+     */
+    @Getter
+    public static final class Report {
+        /**
+         * 策略名称
+         */
+        private final String policyName;
+        /**
+         * 请求数
+         */
+        private final long requestCount;
+        /**
+         * 命中数
+         */
+        private final long hitCount;
+        /**
+         * 命中的权重之和
+         */
+        private final long hitWeight;
+        /**
+         * 所有请求的权重之和
+         */
+        private final long requestWeight;
+        /**
+         * 回放耗时，纳秒
+         */
+        private final long elapsedTime;
+
+        private Report(String policyName, long requestCount, long hitCount, long hitWeight, long requestWeight, long elapsedTime) {
+            this.policyName = policyName;
+            this.requestCount = requestCount;
+            this.hitCount = hitCount;
+            this.hitWeight = hitWeight;
+            this.requestWeight = requestWeight;
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * 获取命中率
+         *
+         * @return 返回命中率，没有请求时返回1
+         */
+        public double hitRate() {
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        /**
+         * 获取加权命中率
+         *
+         * @return 返回加权命中率，没有请求权重时返回1
+         */
+        public double weightedHitRate() {
+            return requestWeight == 0 ? 1.0 : (double) hitWeight / requestWeight;
+        }
+
+        /**
+         * 获取吞吐量
+         *
+         * @return 返回每秒请求数
+         */
+        public double throughput() {
+            return elapsedTime == 0 ? Double.POSITIVE_INFINITY : requestCount * 1e9 / elapsedTime;
+        }
+
+        @Override
+        public String toString() {
+            return Com.buildToString("policyName", policyName, "requestCount", requestCount, "hitRate", hitRate(),
+                    "weightedHitRate", weightedHitRate(), "throughput", throughput());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * 键访问轨迹，按访问顺序保存键与记录的权重，整个轨迹加载到基本类型数组中，回放时不产生IO
+ * <p>
+ * 二进制格式为魔数 {@code CTRC}、版本号，之后每条记录为8字节的键和变长编码的权重，由 {@link TraceWriter} 写入。
+ * 文本格式每行一条记录，为键和可选的权重，以空白分隔，{@code #} 开头的行为注释，非数字的键按64位哈希转换。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class Trace {
+    static final int MAGIC = 0x43545243;
+    static final int VERSION = 1;
+    private final long[] keys;
+    private final int[] weights;
+    private final int size;
+
+    private Trace(long[] keys, int[] weights, int size) {
+        this.keys = keys;
+        this.weights = weights;
+        this.size = size;
+    }
+
+    /**
+     * 读取二进制轨迹
+     *
+     * @param inputStream 输入流，不会被关闭
+     * @return 返回 {@link Trace}
+     * @throws IOException 如果读取失败或格式错误
+     */
+    public static Trace read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream, 8192));
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("The trace magic must be '" + Integer.toHexString(MAGIC) + "',but the value is '" + Integer.toHexString(magic) + "'");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version '" + version + "'");
+        }
+        Builder builder = new Builder();
+        for (; ; ) {
+            int first = in.read();
+            if (first < 0) break;
+            long key = first;
+            for (int i = 1; i < Long.BYTES; i++) {
+                key = (key << 8) | in.readUnsignedByte();
+            }
+            builder.add(key, readVarInt(in));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 导入文本轨迹
+     *
+     * @param reader 输入，不会被关闭
+     * @return 返回 {@link Trace}
+     * @throws IOException 如果读取失败或权重格式错误
+     */
+    public static Trace importText(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Builder builder = new Builder();
+        String line;
+        int number = 0;
+        while ((line = in.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            int separator = 0;
+            while (separator < line.length() && !Character.isWhitespace(line.charAt(separator))) {
+                separator++;
+            }
+            String key = line.substring(0, separator);
+            String weight = line.substring(separator).trim();
+            try {
+                builder.add(parseKey(key), weight.isEmpty() ? 1 : Integer.parseInt(weight));
+            } catch (NumberFormatException e) {
+                throw new IOException("The weight must be integer,but the value is '" + weight + "' at line " + number, e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 写入二进制轨迹
+     *
+     * @param outputStream 输出流，不会被关闭
+     * @throws IOException 如果写入失败
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        TraceWriter writer = new TraceWriter(outputStream);
+        for (int i = 0; i < size; i++) {
+            writer.write(keys[i], weights[i]);
+        }
+        writer.flush();
+    }
+
+    /**
+     * 获取记录数
+     *
+     * @return 返回记录数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取键
+     *
+     * @param index 记录索引
+     * @return 返回键
+     */
+    public long key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * 获取记录的权重
+     *
+     * @param index 记录索引
+     * @return 返回权重
+     */
+    public int weight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * 将对象的哈希码扩展为64位的键
+     */
+    static long hash(Object key) {
+        long x = key.hashCode() * 0x9E3779B97F4A7C15L;
+        return x ^ (x >>> 32);
+    }
+
+    private static long parseKey(String key) {
+        try {
+            return Long.parseLong(key);
+        } catch (NumberFormatException e) {
+            //FNV-1a
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return hash;
+        }
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new EOFException("The trace is truncated");
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("The weight is malformed");
+    }
+
+    private static final class Builder {
+        private long[] keys = new long[1024];
+        private int[] weights = new int[1024];
+        private int size;
+
+        private void add(long key, int weight) {
+            if (size == keys.length) {
+                int length = keys.length << 1;
+                if (length < 0) throw new IllegalStateException("The trace is too large");
+                keys = Arrays.copyOf(keys, length);
+                weights = Arrays.copyOf(weights, length);
+            }
+            keys[size] = key;
+            weights[size] = weight;
+            size++;
+        }
+
+        private Trace build() {
+            return new Trace(keys, weights, size);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import potatoxf.api.support.Arg;
+import potatoxf.infrastructure.cache.Cache;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * 轨迹记录器，代理一个正在使用的 {@link Cache}，将读取的键记录到固定大小的环形缓冲区，
+ * 再由后台线程调用 {@link #drainTo(TraceWriter)} 写出为 {@link Trace}。
+ * <p>
+ * 记录只需要一次原子自增、一次CAS和三次数组写入，不加锁、不分配内存；排空不及时的记录会被覆盖并计入丢弃数，
+ * 与落后的写入者争用同一槽位的记录也会被丢弃，但不会写出不完整的记录。
+ * 键记录为哈希码扩展的64位值，不同的键哈希码相同时会被视为同一个键。
+ * 权重由 {@link WeigherForTwain} 根据读取到的值计算，未命中时值未知，权重记为1，
+ * 通过 {@link #get(Object, Function)} 计算的值按计算结果记录权重。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class TraceRecorder<K, V> implements Cache<K, V> {
+    /*
+     * The slot sequences form a seqlock. A writer takes an index with getAndIncrement, then claims the
+     * slot at index & mask by a CAS of its sequence from a published older value to -(index + 1),
+     * which marks it busy. If the slot is busy or already holds a newer record the writer drops its
+     * record, so a slot has at most one writer and sequences only move forward. The writer then
+     * stores the key and weight and publishes index + 1 with a release store.
+     *
+     * The single drainer reads the sequence of the slot it expects. If the value is index + 1 it
+     * reads the key and weight and then the sequence again, all with volatile reads. A writer that
+     * lapped the slot must mark it busy before changing the record. So if the sequence is unchanged
+     * the record is whole, and otherwise it is dropped. If the slot is busy for the expected record,
+     * or still holds an older one, the writer has not finished and the drain stops there. A newer
+     * record, published or busy, means the slot was lapped, and the expected record is dropped.
+     */
+
+    private final Cache<K, V> delegate;
+    private final WeigherForTwain<? super K, ? super V> weigher;
+    private final int mask;
+    private final AtomicLongArray keys;
+    private final AtomicIntegerArray weights;
+    private final AtomicLongArray sequences;
+    private final AtomicLong writeIndex = new AtomicLong();
+    private long readIndex;
+    private long droppedCount;
+
+    /**
+     * @param delegate 被代理的缓存
+     * @param capacity 环形缓冲区容量，向上取整为2的幂
+     */
+    public TraceRecorder(Cache<K, V> delegate, int capacity) {
+        this(delegate, WeigherForTwain.singleton(), capacity);
+    }
+
+    /**
+     * @param delegate 被代理的缓存
+     * @param weigher  权重计算器
+     * @param capacity 环形缓冲区容量，向上取整为2的幂
+     */
+    public TraceRecorder(Cache<K, V> delegate, WeigherForTwain<? super K, ? super V> weigher, int capacity) {
+        Arg.check(capacity > 0 && capacity <= (1 << 30), () -> "The capacity must between 1 and 2^30,but the value is '" + capacity + "'");
+        this.delegate = Objects.requireNonNull(delegate, "The delegate must be not null");
+        this.weigher = Objects.requireNonNull(weigher, "The weigher must be not null");
+        int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = length - 1;
+        this.keys = new AtomicLongArray(length);
+        this.weights = new AtomicIntegerArray(length);
+        this.sequences = new AtomicLongArray(length);
+    }
+
+    /**
+     * 将已记录的访问写出，排空之间互斥
+     *
+     * @param writer 轨迹写入器，写入后不会刷新
+     * @return 返回写出的记录数
+     * @throws IOException 如果写入失败
+     */
+    public synchronized long drainTo(TraceWriter writer) throws IOException {
+        long end = writeIndex.get();
+        long drained = 0;
+        int length = mask + 1;
+        if (end - readIndex > length) {
+            droppedCount += end - length - readIndex;
+            readIndex = end - length;
+        }
+        while (readIndex < end) {
+            int slot = (int) readIndex & mask;
+            long sequence = sequences.get(slot);
+            //忙碌的槽位按正在写入的序号比较
+            if (Math.abs(sequence) <= readIndex || sequence == -(readIndex + 1)) break;
+            if (sequence == readIndex + 1) {
+                long key = keys.get(slot);
+                int weight = weights.get(slot);
+                if (sequences.get(slot) == sequence) {
+                    writer.write(key, weight);
+                    drained++;
+                    readIndex++;
+                    continue;
+                }
+            }
+            droppedCount++;
+            readIndex++;
+        }
+        return drained;
+    }
+
+    /**
+     * 获取被覆盖而丢弃的记录数
+     *
+     * @return 返回丢弃的记录数
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    @Override
+    public V get(Object key) {
+        V value = delegate.get(key);
+        record(key, value);
+        return value;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = delegate.get(key, mappingFunction);
+        record(key, value);
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return delegate.put(key, value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return delegate.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return delegate.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return delegate.remove(key, value);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void record(Object key, V value) {
+        if (key == null) return;
+        int weight = value == null ? 1 : Math.max(0, weigher.weigh((K) key, value));
+        long index = writeIndex.getAndIncrement();
+        int slot = (int) index & mask;
+        long sequence = sequences.get(slot);
+        //槽位正在被写入或已有更新的记录时丢弃
+        if (sequence < 0 || sequence > index || !sequences.compareAndSet(slot, sequence, -(index + 1))) return;
+        keys.lazySet(slot, Trace.hash(key));
+        weights.lazySet(slot, weight);
+        sequences.lazySet(slot, index + 1);
+    }
+}
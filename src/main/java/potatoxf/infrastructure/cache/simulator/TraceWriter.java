@@ -0,0 +1,62 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 二进制轨迹写入器，每条记录为8字节的键和变长编码的权重，权重为1时一条记录占9字节。
+ * 请注意，此对象不是为线程安全而设计的。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ * @see Trace#read(java.io.InputStream)
+ */
+public final class TraceWriter implements Closeable, Flushable {
+    private final DataOutputStream out;
+
+    /**
+     * 写入文件头
+     *
+     * @param outputStream 输出流，关闭时一起关闭
+     * @throws IOException 如果写入失败
+     */
+    public TraceWriter(OutputStream outputStream) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(outputStream, 8192));
+        out.writeInt(Trace.MAGIC);
+        out.writeByte(Trace.VERSION);
+    }
+
+    /**
+     * 写入一条记录
+     *
+     * @param key    键
+     * @param weight 权重，非负数
+     * @throws IOException 如果写入失败
+     */
+    public void write(long key, int weight) throws IOException {
+        if (weight < 0) {
+            throw new IllegalArgumentException("The weight must greater then or equal 0,but the value is '" + weight + "'");
+        }
+        out.writeLong(key);
+        while ((weight & ~0x7F) != 0) {
+            out.writeByte((weight & 0x7F) | 0x80);
+            weight >>>= 7;
+        }
+        out.writeByte(weight);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
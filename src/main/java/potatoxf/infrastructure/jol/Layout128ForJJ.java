@@ -0,0 +1,78 @@
+package potatoxf.infrastructure.jol;
+
+import potatoxf.api.support.Arg;
+
+/**
+ * 强制执行内存布局，两个值相邻地位于同一缓存行，前后都有填充，一次写入两个值只修改一个缓存行。
+ * 与 {@link Layout128ForJ2} 相反，后者将两个值分开在不同的缓存行。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class Layout128ForJJ extends PaddingHeader128 {
+    private static final long OFFSET_VALUE_1 = Arg.safeGetObjectFieldOffset(Layout128ForJJ.class, "value1");
+    private static final long OFFSET_VALUE_2 = Arg.safeGetObjectFieldOffset(Layout128ForJJ.class, "value2");
+    private volatile long value1;
+    private volatile long value2;
+    byte __padding_129, __padding_130, __padding_131, __padding_132;
+    byte __padding_133, __padding_134, __padding_135, __padding_136;
+    byte __padding_137, __padding_138, __padding_139, __padding_140;
+    byte __padding_141, __padding_142, __padding_143, __padding_144;
+    byte __padding_145, __padding_146, __padding_147, __padding_148;
+    byte __padding_149, __padding_150, __padding_151, __padding_152;
+    byte __padding_153, __padding_154, __padding_155, __padding_156;
+    byte __padding_157, __padding_158, __padding_159, __padding_160;
+    byte __padding_161, __padding_162, __padding_163, __padding_164;
+    byte __padding_165, __padding_166, __padding_167, __padding_168;
+    byte __padding_169, __padding_170, __padding_171, __padding_172;
+    byte __padding_173, __padding_174, __padding_175, __padding_176;
+    byte __padding_177, __padding_178, __padding_179, __padding_180;
+    byte __padding_181, __padding_182, __padding_183, __padding_184;
+    byte __padding_185, __padding_186, __padding_187, __padding_188;
+    byte __padding_189, __padding_190, __padding_191, __padding_192;
+    byte __padding_193, __padding_194, __padding_195, __padding_196;
+    byte __padding_197, __padding_198, __padding_199, __padding_200;
+    byte __padding_201, __padding_202, __padding_203, __padding_204;
+    byte __padding_205, __padding_206, __padding_207, __padding_208;
+    byte __padding_209, __padding_210, __padding_211, __padding_212;
+    byte __padding_213, __padding_214, __padding_215, __padding_216;
+    byte __padding_217, __padding_218, __padding_219, __padding_220;
+    byte __padding_221, __padding_222, __padding_223, __padding_224;
+    byte __padding_225, __padding_226, __padding_227, __padding_228;
+    byte __padding_229, __padding_230, __padding_231, __padding_232;
+    byte __padding_233, __padding_234, __padding_235, __padding_236;
+    byte __padding_237, __padding_238, __padding_239, __padding_240;
+    byte __padding_241, __padding_242, __padding_243, __padding_244;
+    byte __padding_245, __padding_246, __padding_247, __padding_248;
+    byte __padding_249, __padding_250, __padding_251, __padding_252;
+    byte __padding_253, __padding_254, __padding_255, __padding_256;
+
+    protected final long value1() {
+        return Arg.safeGetUnsafe().getLongVolatile(this, OFFSET_VALUE_1);
+    }
+
+    protected final void value1(long count) {
+        Arg.safeGetUnsafe().putOrderedLong(this, OFFSET_VALUE_1, count);
+    }
+
+    protected final boolean value1(long expect, long update) {
+        return Arg.safeGetUnsafe().compareAndSwapLong(this, OFFSET_VALUE_1, expect, update);
+    }
+
+    protected final long value2() {
+        return Arg.safeGetUnsafe().getLongVolatile(this, OFFSET_VALUE_2);
+    }
+
+    protected final void value2(long count) {
+        Arg.safeGetUnsafe().putOrderedLong(this, OFFSET_VALUE_2, count);
+    }
+
+    protected final boolean value2(long expect, long update) {
+        return Arg.safeGetUnsafe().compareAndSwapLong(this, OFFSET_VALUE_2, expect, update);
+    }
+
+    protected final long value2Add(long delta) {
+        return Arg.safeGetUnsafe().getAndAddLong(this, OFFSET_VALUE_2, delta);
+    }
+}
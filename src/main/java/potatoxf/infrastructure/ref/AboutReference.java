@@ -64,6 +64,25 @@ public interface AboutReference<T> extends Supplier<T> {
         return Objects.equals(this.get(), otherReferent);
     }
 
+    /**
+     * 按同一性比较引用值，即引用的是同一个对象，引用值为null时只与自身相等，用于按 {@link System#identityHashCode(Object)} 哈希的引用
+     *
+     * @param other 另一个引用{@link AboutReference}或{@link Reference}
+     * @return 如果引用的是同一个对象返回true，否则返回false
+     */
+    default boolean referenceIdentityEquals(Object other) {
+        if (this == other) return true;
+        Object referent = this.get();
+        if (referent == null) return false;
+        if (other instanceof Reference) {
+            return referent == ((Reference<?>) other).get();
+        }
+        if (other instanceof AboutReference) {
+            return referent == ((AboutReference<?>) other).get();
+        }
+        return false;
+    }
+
     /**
      * 获取引用值{@link Object#hashCode()}
      *
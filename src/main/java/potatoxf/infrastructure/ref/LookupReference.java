@@ -3,7 +3,7 @@ package potatoxf.infrastructure.ref;
 import java.util.Objects;
 
 /**
- * 用于寻找引用
+ * 用于寻找引用，通过 {@link #identity(Object)} 创建的查找按同一性比较，用于寻找 {@link WeakIdentityReference} 等按同一性比较的引用
  * <p/>
  * Create Time:2024-04-17
  *
@@ -11,14 +11,35 @@ import java.util.Objects;
  */
 public class LookupReference<T> extends BasicValReference<T> implements AboutReference<T> {
     private final int hashCode;
+    private final boolean identity;
 
     public LookupReference(T referent) {
         this(referent, Objects.hashCode(referent));
     }
 
     public LookupReference(T referent, int hashCode) {
+        this(referent, hashCode, false);
+    }
+
+    private LookupReference(T referent, int hashCode, boolean identity) {
         super(referent);
         this.hashCode = hashCode;
+        this.identity = identity;
+    }
+
+    /**
+     * 创建按同一性比较的查找，哈希值为 {@link System#identityHashCode(Object)}
+     *
+     * @param referent 引用值
+     * @return {@code LookupReference}
+     */
+    public static <T> LookupReference<T> identity(T referent) {
+        return new LookupReference<>(referent, System.identityHashCode(referent), true);
+    }
+
+    @Override
+    public boolean referenceEquals(Object other) {
+        return identity ? this.referenceIdentityEquals(other) : super.referenceEquals(other);
     }
 
     @Override
@@ -0,0 +1,382 @@
+package potatoxf.infrastructure.ref;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 键或值可以被垃圾回收的并发映射，条目以 {@link PairReference} 保存，不允许null键和null值。
+ * <p>
+ * 弱引用或软引用的键按同一性比较，即 {@code ==} 与 {@link System#identityHashCode(Object)}，与Guava的 {@code weakKeys()} 一致；
+ * 强引用的键按 {@link Object#equals(Object)} 比较，值总是按 {@link Object#equals(Object)} 比较。
+ * 被回收的条目在之后的写操作中分批清除，在清除之前 {@link #size()} 可能包含它们，但读操作不会返回它们。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class ReferenceConcurrentMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    /*
+     * The table is a ConcurrentHashMap whose values are PairReference. For weak or soft keys the table
+     * key is the pair's own key reference, a WeakIdentityReference or SoftIdentityReference registered
+     * with the key queue, so every entry holds exactly one reference to its key. It hashes by
+     * identityHashCode and equals another reference only if both referents are alive and the same
+     * object, so distinct but equal keys never share a mapping, and a cleared one equals only itself.
+     * A read looks the key up through LookupReference.identity() carrying the same hash and the same
+     * equality. For strong keys the table key is the key itself. A write that finds an existing pair
+     * replaces the value reference of that pair in place; the unused new pair is cleared, which clears
+     * its key reference so that it is never enqueued.
+     *
+     * When the collector clears a key or a value, its reference is enqueued. A key reference is the
+     * table key itself and, being cleared, matches only its own entry. A value reference leads back to
+     * the pair's key via aboutReference(), and the pair is removed only if it still holds the polled
+     * value reference, so a stale reference never removes a newer mapping. Removed pairs die(), which
+     * clears the key reference without enqueuing it again.
+     */
+
+    // 每次写操作最多处理的引用数量
+    private static final int DRAIN_MAX = 16;
+    private final ReferenceType keyReferenceType;
+    private final ReferenceType valueReferenceType;
+    private final PariReferenceQueue<K, V> referenceQueue;
+    private final ConcurrentHashMap<Object, PairReference<K, V>> data;
+    private Set<Entry<K, V>> entrySet;
+
+    /**
+     * @param keyReferenceType   键的引用类型，为null时为强引用
+     * @param valueReferenceType 值的引用类型，为null时为强引用
+     */
+    public ReferenceConcurrentMap(ReferenceType keyReferenceType, ReferenceType valueReferenceType) {
+        this(keyReferenceType, valueReferenceType, 16);
+    }
+
+    /**
+     * @param keyReferenceType   键的引用类型，为null时为强引用
+     * @param valueReferenceType 值的引用类型，为null时为强引用
+     * @param initialCapacity    初始容量
+     */
+    public ReferenceConcurrentMap(ReferenceType keyReferenceType, ReferenceType valueReferenceType, int initialCapacity) {
+        this.keyReferenceType = keyReferenceType;
+        this.valueReferenceType = valueReferenceType;
+        this.referenceQueue = new PariReferenceQueue<>(keyReferenceType, valueReferenceType);
+        this.data = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    /**
+     * 创建弱引用键的并发映射
+     *
+     * @return {@code ReferenceConcurrentMap}
+     */
+    public static <K, V> ReferenceConcurrentMap<K, V> weakKeys() {
+        return new ReferenceConcurrentMap<>(ReferenceType.WEAK, null);
+    }
+
+    /**
+     * 创建弱引用值的并发映射
+     *
+     * @return {@code ReferenceConcurrentMap}
+     */
+    public static <K, V> ReferenceConcurrentMap<K, V> weakValues() {
+        return new ReferenceConcurrentMap<>(null, ReferenceType.WEAK);
+    }
+
+    /**
+     * 创建软引用值的并发映射
+     *
+     * @return {@code ReferenceConcurrentMap}
+     */
+    public static <K, V> ReferenceConcurrentMap<K, V> softValues() {
+        return new ReferenceConcurrentMap<>(null, ReferenceType.SOFT);
+    }
+
+    /**
+     * 映射中条目的数量，可能包含已被回收但尚未清除的条目
+     *
+     * @return 返回条目的数量
+     */
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) return null;
+        PairReference<K, V> pair = data.get(lookupKey(key));
+        return pair == null ? null : pair.getValue();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) return null;
+        drainReferenceQueues();
+        Object[] removed = new Object[1];
+        data.computeIfPresent(lookupKey(key), (k, pair) -> {
+            removed[0] = pair.getValue();
+            pair.die();
+            return null;
+        });
+        return cast(removed[0]);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) return false;
+        drainReferenceQueues();
+        boolean[] removed = new boolean[1];
+        data.computeIfPresent(lookupKey(key), (k, pair) -> {
+            V current = pair.getValue();
+            if (current != null && !value.equals(current)) return pair;
+            removed[0] = current != null;
+            pair.die();
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(value, "The value must be not null");
+        drainReferenceQueues();
+        Object[] replaced = new Object[1];
+        data.computeIfPresent(lookupKey(key), (k, pair) -> {
+            V current = pair.getValue();
+            if (current == null) {
+                pair.die();
+                return null;
+            }
+            replaced[0] = current;
+            pair.setValue(value, referenceQueue.valueReferenceQueue());
+            return pair;
+        });
+        return cast(replaced[0]);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(oldValue, "The old value must be not null");
+        Objects.requireNonNull(newValue, "The new value must be not null");
+        drainReferenceQueues();
+        boolean[] replaced = new boolean[1];
+        data.computeIfPresent(lookupKey(key), (k, pair) -> {
+            V current = pair.getValue();
+            if (current == null) {
+                pair.die();
+                return null;
+            }
+            if (oldValue.equals(current)) {
+                replaced[0] = true;
+                pair.setValue(newValue, referenceQueue.valueReferenceQueue());
+            }
+            return pair;
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public void clear() {
+        for (Iterator<Entry<Object, PairReference<K, V>>> iterator = data.entrySet().iterator(); iterator.hasNext(); ) {
+            Entry<Object, PairReference<K, V>> entry = iterator.next();
+            iterator.remove();
+            entry.getValue().die();
+        }
+        drainReferenceQueues(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> entrySet = this.entrySet;
+        return entrySet == null ? (this.entrySet = new EntrySet()) : entrySet;
+    }
+
+    /**
+     * 立即清除所有已被回收的条目
+     */
+    public void cleanUp() {
+        drainReferenceQueues(Integer.MAX_VALUE);
+    }
+
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key, "The key must be not null");
+        Objects.requireNonNull(value, "The value must be not null");
+        drainReferenceQueues();
+        PairReference<K, V> created = new PairReference<K, V>(keyReferenceType, valueReferenceType)
+                .setKey(key, referenceQueue.keyReferenceQueue());
+        Object dataKey = keyReferenceType == null ? key : created.getKeyReference();
+        Object[] prior = new Object[1];
+        data.compute(dataKey, (k, pair) -> {
+            if (pair == null) {
+                return created.setValue(value, referenceQueue.valueReferenceQueue());
+            }
+            V current = pair.getValue();
+            prior[0] = current;
+            if (current == null || !onlyIfAbsent) {
+                pair.setValue(value, referenceQueue.valueReferenceQueue());
+            }
+            return pair;
+        });
+        if (created.getValueReference() == null) {
+            //已有条目时新建的键引用没有被使用，清除后不会进入引用队列
+            created.clear();
+        }
+        return cast(prior[0]);
+    }
+
+    /**
+     * 获取用于查找的表键
+     */
+    private Object lookupKey(Object key) {
+        return keyReferenceType == null ? key : LookupReference.identity(key);
+    }
+
+    private void drainReferenceQueues() {
+        drainReferenceQueues(DRAIN_MAX);
+    }
+
+    /**
+     * 从键和值的引用队列中各取出最多指定数量的引用，并移除对应的条目
+     *
+     * @param maximum 每个队列最多处理的引用数量
+     */
+    private void drainReferenceQueues(int maximum) {
+        ReferenceQueue<K> keyReferenceQueue = referenceQueue.keyReferenceQueue();
+        if (keyReferenceQueue != null) {
+            Reference<? extends K> reference;
+            for (int i = 0; i < maximum && (reference = keyReferenceQueue.poll()) != null; i++) {
+                //被回收的键引用只与自身相等，只会匹配它自己的条目
+                PairReference<K, V> pair = data.remove(reference);
+                if (pair != null) {
+                    pair.die();
+                }
+            }
+        }
+        ReferenceQueue<V> valueReferenceQueue = referenceQueue.valueReferenceQueue();
+        if (valueReferenceQueue != null) {
+            Reference<? extends V> reference;
+            for (int i = 0; i < maximum && (reference = valueReferenceQueue.poll()) != null; i++) {
+                AboutReference<?> keyReference = ((AboutReference<?>) reference).aboutReference();
+                Object key = keyReference == null ? null : keyReference.get();
+                if (key != null) {
+                    removeCollected(lookupKey(key), reference);
+                }
+            }
+        }
+    }
+
+    /**
+     * 移除仍然持有被回收值引用的条目
+     *
+     * @param dataKey   用于查找的表键
+     * @param reference 被回收的值引用
+     */
+    private void removeCollected(Object dataKey, Reference<?> reference) {
+        data.computeIfPresent(dataKey, (k, pair) -> {
+            if (pair.getValueReference() != reference) return pair;
+            pair.die();
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return ReferenceConcurrentMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ReferenceConcurrentMap.this.clear();
+        }
+    }
+
+    /**
+     * 跳过已被回收条目的迭代器，弱一致性
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Iterator<PairReference<K, V>> iterator = data.values().iterator();
+        private Entry<K, V> next;
+        private K lastKey;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                PairReference<K, V> pair = iterator.next();
+                K key = pair.getKey();
+                V value = pair.getValue();
+                if (key != null && value != null) {
+                    next = new WriteThroughEntry(key, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Entry<K, V> entry = next;
+            next = null;
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) throw new IllegalStateException();
+            ReferenceConcurrentMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    private final class WriteThroughEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+}
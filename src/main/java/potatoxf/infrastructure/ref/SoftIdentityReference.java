@@ -3,7 +3,8 @@ package potatoxf.infrastructure.ref;
 import java.lang.ref.ReferenceQueue;
 
 /**
- * 软引用，包裹引用，并对引用实现{@link #equals(Object)}，{@link #toString()}，并使用指定{@link #hashCode}实现{@link #hashCode()}
+ * 软引用，包裹引用，并对引用实现{@link #equals(Object)}，{@link #toString()}，并使用指定{@link #hashCode}实现{@link #hashCode()}。
+ * 按同一性比较引用值，使用默认哈希值时与 {@link System#identityHashCode(Object)} 一致
  * <p/>
  * Create Time:2024-04-17
  *
@@ -29,6 +30,11 @@ public class SoftIdentityReference<T> extends SoftEqualsReference<T> implements
         this.hashCode = hashCode;
     }
 
+    @Override
+    public boolean referenceEquals(Object other) {
+        return this.referenceIdentityEquals(other);
+    }
+
     @Override
     public int referenceHashCode() {
         return hashCode;
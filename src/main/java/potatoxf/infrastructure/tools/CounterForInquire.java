@@ -1,5 +1,7 @@
 package potatoxf.infrastructure.tools;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 查询的统计器，用于记录查询是否命中次数
  * <p/>
@@ -14,6 +16,18 @@ public interface CounterForInquire {
         return new CounterForInquireImpl();
     }
 
+    /**
+     * 创建滑动时间窗口的统计器，只统计最近一个窗口内的次数
+     *
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量
+     * @return 返回 {@link CounterForInquireForRolling}
+     */
+    static CounterForInquireForRolling rolling(long window, TimeUnit unit, int bucketCount) {
+        return new CounterForInquireForRolling(window, unit, bucketCount);
+    }
+
     /**
      * 记录已命中
      *
@@ -0,0 +1,96 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Com;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动时间窗口的查询统计器，只统计最近一个窗口内的命中和未命中次数，用于告警等需要反映近期状态的场景。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class CounterForInquireForRolling implements CounterForInquire {
+    private static final int HIT = 0;
+    private static final int MISS = 1;
+    private final RollingWindow window;
+
+    /**
+     * 使用 {@link TimeTicker#systemTicker()}
+     *
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量，越多窗口滑动越平滑
+     */
+    public CounterForInquireForRolling(long window, TimeUnit unit, int bucketCount) {
+        this(TimeTicker.systemTicker(), window, unit, bucketCount);
+    }
+
+    /**
+     * @param ticker      以纳秒计的时间源
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量，越多窗口滑动越平滑
+     */
+    public CounterForInquireForRolling(TimeTicker ticker, long window, TimeUnit unit, int bucketCount) {
+        this.window = new RollingWindow(ticker, window, unit, bucketCount, 2);
+    }
+
+    @Override
+    public void recordHit(int count) {
+        window.add(HIT, count);
+    }
+
+    @Override
+    public void recordMiss(int count) {
+        window.add(MISS, count);
+    }
+
+    /**
+     * 获取窗口内的命中次数
+     *
+     * @return 返回命中次数
+     */
+    @Override
+    public long hitCount() {
+        return window.sum()[HIT];
+    }
+
+    /**
+     * 获取窗口内的未命中次数
+     *
+     * @return 返回未命中次数
+     */
+    @Override
+    public long missCount() {
+        return window.sum()[MISS];
+    }
+
+    /**
+     * 获取窗口内的命中率
+     *
+     * @return 返回命中率，没有查询时返回1
+     */
+    public double hitRate() {
+        long[] sums = window.sum();
+        long total = sums[HIT] + sums[MISS];
+        return total == 0 ? 1.0d : (double) sums[HIT] / total;
+    }
+
+    /**
+     * 获取窗口内每秒的查询次数
+     *
+     * @return 返回每秒查询次数
+     */
+    public double throughput() {
+        long[] sums = window.sum();
+        return (sums[HIT] + sums[MISS]) * 1e9d / window.spanNanos();
+    }
+
+    @Override
+    public String toString() {
+        long[] sums = window.sum();
+        return Com.buildToString("hitCount", sums[HIT], "missCount", sums[MISS], "hitRate", hitRate(), "throughput", throughput());
+    }
+}
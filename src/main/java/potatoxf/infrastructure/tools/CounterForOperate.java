@@ -1,5 +1,7 @@
 package potatoxf.infrastructure.tools;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 操作的统计器，用于记录操作成功或操作失败
  * <p/>
@@ -14,6 +16,36 @@ public interface CounterForOperate {
         return new CounterForOperateImpl();
     }
 
+    /**
+     * 创建分段的统计器，次数和时间位于同一缓存行，适合高竞争的场景
+     *
+     * @return 返回 {@link CounterForOperate}
+     */
+    static CounterForOperate striped() {
+        return new CounterForOperateForStriped();
+    }
+
+    /**
+     * 创建记录耗时分布的统计器，可以获取百分位数
+     *
+     * @return 返回 {@link LatencyHistogram}
+     */
+    static LatencyHistogram histogram() {
+        return new LatencyHistogram();
+    }
+
+    /**
+     * 创建滑动时间窗口的统计器，只统计最近一个窗口内的次数和时间
+     *
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量
+     * @return 返回 {@link CounterForOperateForRolling}
+     */
+    static CounterForOperateForRolling rolling(long window, TimeUnit unit, int bucketCount) {
+        return new CounterForOperateForRolling(window, unit, bucketCount);
+    }
+
     /**
      * 记录成功操作信息
      *
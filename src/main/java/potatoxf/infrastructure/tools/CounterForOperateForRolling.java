@@ -0,0 +1,111 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Com;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 滑动时间窗口的操作统计器，只统计最近一个窗口内的成功和失败操作，用于告警等需要反映近期状态的场景。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class CounterForOperateForRolling implements CounterForOperate {
+    private static final int SUCCESS = 0;
+    private static final int SUCCESS_TIME = 1;
+    private static final int FAILURE = 2;
+    private static final int FAILURE_TIME = 3;
+    private final RollingWindow window;
+
+    /**
+     * 使用 {@link TimeTicker#systemTicker()}
+     *
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量，越多窗口滑动越平滑
+     */
+    public CounterForOperateForRolling(long window, TimeUnit unit, int bucketCount) {
+        this(TimeTicker.systemTicker(), window, unit, bucketCount);
+    }
+
+    /**
+     * @param ticker      以纳秒计的时间源
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量，越多窗口滑动越平滑
+     */
+    public CounterForOperateForRolling(TimeTicker ticker, long window, TimeUnit unit, int bucketCount) {
+        this.window = new RollingWindow(ticker, window, unit, bucketCount, 4);
+    }
+
+    @Override
+    public void recordSuccess(long time) {
+        window.add(SUCCESS, SUCCESS_TIME, time);
+    }
+
+    @Override
+    public void recordFailure(long time) {
+        window.add(FAILURE, FAILURE_TIME, time);
+    }
+
+    @Override
+    public long successCount() {
+        return window.sum()[SUCCESS];
+    }
+
+    @Override
+    public long successTimeCount() {
+        return window.sum()[SUCCESS_TIME];
+    }
+
+    @Override
+    public long failureCount() {
+        return window.sum()[FAILURE];
+    }
+
+    @Override
+    public long failureTimeCount() {
+        return window.sum()[FAILURE_TIME];
+    }
+
+    /**
+     * 获取窗口内的失败率
+     *
+     * @return 返回失败率，没有操作时返回0
+     */
+    public double failureRate() {
+        long[] sums = window.sum();
+        long total = sums[SUCCESS] + sums[FAILURE];
+        return total == 0 ? 0.0d : (double) sums[FAILURE] / total;
+    }
+
+    /**
+     * 获取窗口内每秒的操作次数
+     *
+     * @return 返回每秒操作次数
+     */
+    public double throughput() {
+        long[] sums = window.sum();
+        return (sums[SUCCESS] + sums[FAILURE]) * 1e9d / window.spanNanos();
+    }
+
+    /**
+     * 获取窗口内操作的平均时间
+     *
+     * @return 返回平均时间，没有操作时返回0
+     */
+    public double averageTime() {
+        long[] sums = window.sum();
+        long total = sums[SUCCESS] + sums[FAILURE];
+        return total == 0 ? 0.0d : (double) (sums[SUCCESS_TIME] + sums[FAILURE_TIME]) / total;
+    }
+
+    @Override
+    public String toString() {
+        long[] sums = window.sum();
+        return Com.buildToString("successCount", sums[SUCCESS], "successTimeCount", sums[SUCCESS_TIME],
+                "failureCount", sums[FAILURE], "failureTimeCount", sums[FAILURE_TIME],
+                "failureRate", failureRate(), "throughput", throughput());
+    }
+}
@@ -18,7 +18,7 @@ class CounterForOperateImpl implements CounterForOperate {
 
     @Override
     public void recordSuccess(long time) {
-        successCount.add(time);
+        successCount.increment();
         successTimeCount.add(time);
     }
 
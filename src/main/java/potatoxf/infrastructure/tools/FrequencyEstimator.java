@@ -0,0 +1,152 @@
+package potatoxf.infrastructure.tools;
+
+import java.util.Objects;
+
+/**
+ * 元素频次估计器，用于估计元素在时间窗口内的受欢迎程度
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ * @see FrequencySketch
+ * @see FrequencySketchForConcurrent
+ * @see FrequencySketchForBlock
+ * @see FrequencySketchForOffHeap
+ */
+public interface FrequencyEstimator {
+
+    /**
+     * 创建非线程安全的频次估计器，需要外部同步
+     *
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator of() {
+        return new FrequencySketch();
+    }
+
+    /**
+     * 创建非线程安全的频次估计器，需要外部同步
+     *
+     * @param doorkeeperEnabled 是否启用门卫布隆过滤器，吸收元素的首次出现
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator of(boolean doorkeeperEnabled) {
+        return new FrequencySketch(doorkeeperEnabled);
+    }
+
+    /**
+     * 创建按时间老化的频次估计器，需要外部同步
+     *
+     * @param agingTicker   老化使用的时间源
+     * @param agingInterval 老化间隔，单位与时间源一致
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator of(TimeTicker agingTicker, long agingInterval) {
+        return new FrequencySketch(false, Objects.requireNonNull(agingTicker, "The ticker must be not null"), agingInterval);
+    }
+
+    /**
+     * 创建线程安全且无锁的频次估计器
+     *
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator concurrent() {
+        return new FrequencySketchForConcurrent();
+    }
+
+    /**
+     * 创建按缓存行分块的频次估计器，每次查询或增加最多一次缓存未命中，需要外部同步
+     *
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator block() {
+        return new FrequencySketchForBlock();
+    }
+
+    /**
+     * 创建计数表位于直接内存中的频次估计器，表长度不受数组长度限制，需要外部同步。
+     * 需要跨重启保留频次时使用 {@link FrequencySketchForOffHeap#FrequencySketchForOffHeap(java.io.File)}
+     *
+     * @return {@code FrequencyEstimator}
+     */
+    static FrequencyEstimator offHeap() {
+        return new FrequencySketchForOffHeap();
+    }
+
+    /**
+     * 初始化或扩容，扩容后之前记录的频次会丢失
+     *
+     * @param maximumSize 缓存的最大大小
+     */
+    void ensureCapacity(long maximumSize);
+
+    /**
+     * 如果尚未初始化，则返回true，要求 {@link #ensureCapacity} 为在开始跟踪频率之前调用。
+     *
+     * @return 如果尚未初始化返回true，否则返回false
+     */
+    boolean isNotInitialized();
+
+    /**
+     * 获取元素的估计频次
+     *
+     * @param element 元素值
+     * @return 元素的估计出现次数，可能为零，但绝不是负数。
+     */
+    default int frequency(Object element) {
+        return frequencyHash(element.hashCode());
+    }
+
+    /**
+     * 获取元素的估计频次，避免基本类型装箱
+     *
+     * @param element 元素值
+     * @return 元素的估计出现次数，可能为零，但绝不是负数。
+     */
+    default int frequency(long element) {
+        return frequencyHash(Long.hashCode(element));
+    }
+
+    /**
+     * 通过元素的哈希值获取估计频次，哈希值须与 {@link Object#hashCode()} 的计算方式一致才能与对象入口互通
+     *
+     * @param hashCode 元素的哈希值
+     * @return 元素的估计出现次数，可能为零，但绝不是负数。
+     */
+    int frequencyHash(int hashCode);
+
+    /**
+     * 增加元素的频次
+     *
+     * @param element 元素值
+     */
+    default void increment(Object element) {
+        incrementHash(element.hashCode());
+    }
+
+    /**
+     * 增加元素的频次，避免基本类型装箱
+     *
+     * @param element 元素值
+     */
+    default void increment(long element) {
+        incrementHash(Long.hashCode(element));
+    }
+
+    /**
+     * 获取已经开始的老化次数，每开始一轮将所有counter减半的老化加1，
+     * 调用方可以据此让自身记录的次数与估计器同步衰减
+     *
+     * @return 返回已经开始的老化次数，不会老化的估计器返回0
+     */
+    default long getAgingCount() {
+        return 0;
+    }
+
+    /**
+     * 通过元素的哈希值增加频次，哈希值须与 {@link Object#hashCode()} 的计算方式一致才能与对象入口互通
+     *
+     * @param hashCode 元素的哈希值
+     */
+    void incrementHash(int hashCode);
+}
@@ -1,7 +1,11 @@
 package potatoxf.infrastructure.tools;
 
-
 import lombok.Getter;
+import potatoxf.api.support.Arg;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 用于估计元素在时间窗口内的受欢迎程度的概率多集。这元件的最大频率限制为15和周期性老化过程将所有元素的受欢迎程度减半。
@@ -10,7 +14,7 @@ import lombok.Getter;
  *
  * @author potatoxf
  */
-public final class FrequencySketch {
+public final class FrequencySketch implements FrequencyEstimator {
     /*
      * This class maintains a 4-bit CountMinSketch [1] with periodic aging to provide the popularity
      * history for the TinyLfu admission policy [2]. The time and space efficiency of the sketch
@@ -28,6 +32,22 @@ public final class FrequencySketch {
      * counters found. The O(n) cost of aging is amortized, ideal for hardware prefetching, and uses
      * inexpensive bit manipulations per array location.
      *
+     * The aging pass itself is incremental so that no single caller pays for the full O(n) loop. When
+     * the sample is full, a pass starts and each following increment halves the next AGING_STEP words
+     * of the table. While a pass is in progress, frequency() reads the words that have not been halved
+     * yet with their counters halved, so every estimate is taken from the same aged view of the table.
+     * Increments that land ahead of the cursor are halved once more when the pass reaches them, which
+     * loses at most one count per counter during a pass.
+     *
+     * An optional doorkeeper [2] is a single-hash Bloom filter placed in front of the counters. The
+     * first occurrence of an element only sets its doorkeeper bit, and only repeated occurrences reach
+     * the count-min table, so the long tail of one-hit elements no longer pollutes four counters each.
+     * The doorkeeper bit contributes one to the estimate and is cleared by every reset.
+     *
+     * Instead of the sampling window, aging may be driven by a TimeTicker so that the sketch forgets
+     * at the same pace regardless of traffic. Once the aging interval has elapsed, a pass starts and
+     * proceeds in the same incremental way.
+     *
      * [1] An Improved Data Stream Summary: The Count-Min Sketch and its Applications
      * http://dimacs.rutgers.edu/~graham/pubs/papers/cm-full.pdf
      * [2] TinyLFU: A Highly Efficient Cache Admission Policy
@@ -36,14 +56,57 @@ public final class FrequencySketch {
 
     // A mixture of seeds from FNV-1a, CityHash, and Murmur3
     private static final long[] SPREAD = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // 每个counter的最低位
+    static final long ONE_MASK = 0x1111111111111111L;
+    // 右移一位后抹去每个counter的最高位
+    static final long RESET_MASK = 0x7777777777777777L;
+    private static final int SNAPSHOT_MAGIC = 0x46534B54;
+    private static final byte SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_BYTES = 4 + 1 + 4 + 8;
+    private static final long DOORKEEPER_SEED = 0x9e3779b97f4a7c15L;
+    // 每次增加时老化的slot数量
+    static final int AGING_STEP = 64;
     @Getter
     private volatile long sampleSize;
     private volatile int tableMask;
     private volatile long[] table;
     private volatile long size;
+    private final boolean doorkeeperEnabled;
+    private volatile long[] doorkeeper;
+    private final TimeTicker agingTicker;
+    private final long agingInterval;
+    private long nextAgingTime;
+    // 下一个待老化的slot下标，-1表示当前没有进行中的老化
+    private int agingCursor = -1;
+    // 本轮老化中已处理的slot里频次为奇数的counter个数
+    private long agingOddCount;
+    // 已经开始的老化次数
+    @Getter
+    private long agingCount;
 
     public FrequencySketch() {
+        this(false);
+    }
 
+    /**
+     * @param doorkeeperEnabled 是否在计数表前启用门卫布隆过滤器，吸收元素的首次出现
+     */
+    public FrequencySketch(boolean doorkeeperEnabled) {
+        this(doorkeeperEnabled, null, 0);
+    }
+
+    /**
+     * 按时间老化，每经过指定时间将所有counter减半，老化分摊到之后的每次增加中，每次只处理表的一部分
+     *
+     * @param doorkeeperEnabled 是否在计数表前启用门卫布隆过滤器，吸收元素的首次出现
+     * @param agingTicker       老化使用的时间源，为null时按采样大小老化
+     * @param agingInterval     老化间隔，单位与时间源一致
+     */
+    public FrequencySketch(boolean doorkeeperEnabled, TimeTicker agingTicker, long agingInterval) {
+        Arg.check(agingTicker == null || agingInterval > 0, () -> "The aging interval must greater then 0,but the value is '" + agingInterval + "'");
+        this.doorkeeperEnabled = doorkeeperEnabled;
+        this.agingTicker = agingTicker;
+        this.agingInterval = agingInterval;
     }
 
     /**
@@ -53,18 +116,22 @@ public final class FrequencySketch {
      *
      * @param maximumSize 缓存的最大大小
      */
+    @Override
     public void ensureCapacity(long maximumSize) {
         int maximum = (int) Math.min(Math.max(maximumSize, 1), Integer.MAX_VALUE >>> 1);
         if (table != null && table.length >= maximum) return;
         table = new long[1 << -Integer.numberOfLeadingZeros(maximum - 1)];
         tableMask = Math.max(0, table.length - 1);
-        sampleSize = 10L * tableMask;
+        sampleSize = 10L * table.length;
         size = 0;
+        doorkeeper = doorkeeperEnabled ? new long[table.length] : null;
+        resetTimeAging();
     }
 
     /**
      * 如果草图尚未初始化，则返回，要求 {@link #ensureCapacity} 为在开始跟踪频率之前调用。
      */
+    @Override
     public boolean isNotInitialized() {
         return table == null;
     }
@@ -72,14 +139,16 @@ public final class FrequencySketch {
     /**
      * 获取元素的频次，由于每个元素都有4个hash算法，在4个位置记录了4个频次，取其中最小的频次作为该元素的频次
      *
-     * @param element 元素值
+     * @param hashCode 元素的哈希值
      * @return 元素的估计出现次数，可能为零，但绝不是负数。
      */
-    public int frequency(Object element) {
+    @Override
+    public int frequencyHash(int hashCode) {
         if (isNotInitialized()) return 0;
-        int hash = spread(element.hashCode());
+        int hash = spread(hashCode);
         //start为counter下标，这个算法start只可能为0 4 8 12的其中一种
         int start = (hash & 3) << 2;
+        int cursor = agingCursor;
         int frequency = Integer.MAX_VALUE;
         for (int i = 0; i < 4; i++) {
             //index为每个slot下标
@@ -90,8 +159,15 @@ public final class FrequencySketch {
             //(table[index] >>> 16也就是0000 0000 0000 0000 0100 1010... 1101
             //oxfL也就是15，二进制为0000 0000...0000 1111，跟"0000 0000 0000 0000 0100 1010... 1101"相与，就是只保留后4位，1101，也就是这个counter的值=该元素在该位置的频次
             int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            //老化进行中，尚未减半的slot按减半后的值读取
+            if (cursor >= 0 && index >= cursor) {
+                count >>>= 1;
+            }
             frequency = Math.min(frequency, count);
         }
+        if (doorkeeper != null && doorkeeperContains(hash)) {
+            frequency = Math.min(frequency + 1, 15);
+        }
         return frequency;
     }
 
@@ -101,13 +177,23 @@ public final class FrequencySketch {
      * 假设slot的counter下标=c。slot1的counter下标等于c+1，slot2的counter下标等于c+2，slot3的counter下标等于c+3。
      * 这么做是因为计算counter的算法得到的只能为0,4,8,12这4种情况，为了使用所有16个counter。
      *
-     * @param element 元素值
+     * @param hashCode 元素的哈希值
      */
-    public void increment(Object element) {
+    @Override
+    public void incrementHash(int hashCode) {
         if (isNotInitialized()) return;
+        if (agingCursor >= 0 || agingTicker != null) {
+            advanceAging();
+        }
 
         //hash后再打乱一次，使hashcode更加均匀
-        int hash = spread(element.hashCode());
+        int hash = spread(hashCode);
+
+        //首次出现的元素只记录在门卫中
+        if (doorkeeper != null && doorkeeperPut(hash)) {
+            recordAddition();
+            return;
+        }
 
         //使用hash值二进制后两位计算counter下标
         int start = (hash & 3) << 2;
@@ -125,23 +211,281 @@ public final class FrequencySketch {
         added |= incrementAtCounter(index2, start + 2);
         added |= incrementAtCounter(index3, start + 3);
 
-        if (added && (++size == sampleSize)) {
-            //Reduces every counter by half of its original value.
-            int count = 0;
-            for (int i = 0; i < table.length; i++) {
-                count += Long.bitCount(table[i] & 0x1111111111111111L);
-                //16个counter中频次为奇数的个数
-                //table[i] >>> 1，整体右移1位，其中每4个bit也右移1位，相当于除2。但每个counter的高位是上一个bit的低位，可能为1
-                //& RESET_MASK，抹去新counter的最高位，保留低三位。最终实现每个counter除2
-                //        1100 1001 0001 0010
-                // 右移1位 0110 0100 1000 1001
-                //  相与后 0110 0100 0000 0001
-                table[i] = (table[i] >>> 1) & Long.MAX_VALUE;
+        if (added) {
+            recordAddition();
+        }
+    }
+
+    /**
+     * 将草图快照写入输出流，格式为：魔数、版本、表长度、采样计数、表数据，门卫不会被写入，输出流不会被关闭。
+     * 写入前会先完成进行中的老化
+     *
+     * @param outputStream 输出流
+     * @throws IOException 如果发生I/O错误
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        long[] table = this.table;
+        Arg.check(table != null, () -> "The sketch is not initialized");
+        finishAging();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 8192));
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeByte(SNAPSHOT_VERSION);
+        out.writeInt(table.length);
+        out.writeLong(size);
+        for (long slot : table) {
+            out.writeLong(slot);
+        }
+        out.flush();
+    }
+
+    /**
+     * 从输入流恢复草图快照，替换当前的表，输入流不会被关闭
+     *
+     * @param inputStream 输入流
+     * @throws IOException 如果发生I/O错误或快照格式不正确
+     */
+    public void readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        int length = readSnapshotHeader(in.readInt(), in.readByte(), in.readInt());
+        long size = in.readLong();
+        long[] table = new long[length];
+        byte[] chunk = new byte[8192];
+        for (int i = 0; i < length; ) {
+            int count = Math.min(length - i, chunk.length >>> 3);
+            in.readFully(chunk, 0, count << 3);
+            ByteBuffer.wrap(chunk, 0, count << 3).asLongBuffer().get(table, i, count);
+            i += count;
+        }
+        restore(table, size);
+    }
+
+    /**
+     * 将草图快照写入新的 {@link ByteBuffer}，格式与 {@link #writeTo(OutputStream)} 相同，写入前会先完成进行中的老化。
+     * 快照超过一个缓冲区的容量时使用 {@link #writeTo(OutputStream)}
+     *
+     * @return 返回已翻转可读的 {@link ByteBuffer}
+     * @throws IllegalArgumentException 如果快照超过一个缓冲区的容量
+     */
+    public ByteBuffer toByteBuffer() {
+        long[] table = this.table;
+        Arg.check(table != null, () -> "The sketch is not initialized");
+        long bytes = SNAPSHOT_HEADER_BYTES + ((long) table.length << 3);
+        Arg.check(bytes <= Integer.MAX_VALUE, () -> "The snapshot must fit into one buffer,but the size is '" + bytes + "' bytes");
+        finishAging();
+        ByteBuffer buffer = ByteBuffer.allocate((int) bytes);
+        buffer.putInt(SNAPSHOT_MAGIC).put(SNAPSHOT_VERSION).putInt(table.length).putLong(size);
+        buffer.asLongBuffer().put(table);
+        buffer.position(buffer.limit());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 从 {@link ByteBuffer} 恢复草图快照，替换当前的表，读取后缓冲区的位置移动到快照末尾
+     *
+     * @param buffer 缓冲区
+     * @throws IOException 如果快照格式不正确或超过一个缓冲区的容量
+     */
+    public void readFrom(ByteBuffer buffer) throws IOException {
+        int length = readSnapshotHeader(buffer.getInt(), buffer.get(), buffer.getInt());
+        long size = buffer.getLong();
+        long bytes = (long) length << 3;
+        if (bytes > Integer.MAX_VALUE - SNAPSHOT_HEADER_BYTES) {
+            throw new IOException("The snapshot of " + length + " slots is too large for one buffer");
+        }
+        if (buffer.remaining() < bytes) {
+            throw new IOException("The snapshot is truncated, expect " + length + " slots");
+        }
+        long[] table = new long[length];
+        buffer.asLongBuffer().get(table);
+        buffer.position(buffer.position() + (int) bytes);
+        restore(table, size);
+    }
+
+    /**
+     * 合并另一个相同宽度的草图，每个counter饱和相加，最大15，门卫按位或，合并后超过采样大小时立即老化一次。
+     * 合并前两个草图进行中的老化都会先完成。两个草图必须都启用或都不启用门卫，
+     * 否则门卫吸收的首次出现无法对应到计数上
+     *
+     * @param other 另一个草图
+     * @throws IllegalArgumentException 如果宽度不同或只有一个草图启用了门卫
+     */
+    public void merge(FrequencySketch other) {
+        long[] table = this.table, otherTable = other.table;
+        Arg.check(table != null && otherTable != null, () -> "The sketch is not initialized");
+        Arg.check(table.length == otherTable.length, () -> "The sketch width must be equal, but the value is '" + table.length + "' and '" + otherTable.length + "'");
+        Arg.check(doorkeeperEnabled == other.doorkeeperEnabled, () -> "The sketch doorkeeper must be both enabled or both disabled, but the value is '" + doorkeeperEnabled + "' and '" + other.doorkeeperEnabled + "'");
+        finishAging();
+        other.finishAging();
+        for (int i = 0; i < table.length; i++) {
+            table[i] = saturatedAdd(table[i], otherTable[i]);
+        }
+        long[] doorkeeper = this.doorkeeper, otherDoorkeeper = other.doorkeeper;
+        if (doorkeeper != null) {
+            for (int i = 0; i < doorkeeper.length; i++) {
+                doorkeeper[i] |= otherDoorkeeper[i];
             }
-            size = (size - (count >>> 2)) >>> 1;
+        }
+        size += other.size;
+        if (agingTicker == null && size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 记录一次增加，按采样大小老化时达到采样大小后开始新一轮老化
+     */
+    private void recordAddition() {
+        if (agingTicker == null && ++size >= sampleSize && agingCursor < 0) {
+            startAging();
         }
     }
 
+    /**
+     * 推进老化，按时间老化时到达老化时间后开始新一轮老化，每次将接下来的 {@link #AGING_STEP} 个slot减半
+     */
+    private void advanceAging() {
+        if (agingCursor < 0) {
+            long now = agingTicker.read();
+            if (now - nextAgingTime < 0) return;
+            nextAgingTime = now + agingInterval;
+            startAging();
+        }
+        stepAging(AGING_STEP);
+    }
+
+    /**
+     * 开始新一轮老化，采样计数先减半，门卫立即清空
+     */
+    private void startAging() {
+        agingCount++;
+        agingCursor = 0;
+        agingOddCount = 0;
+        size >>>= 1;
+        if (doorkeeper != null) {
+            Arrays.fill(doorkeeper, 0L);
+        }
+    }
+
+    /**
+     * 将接下来的slot中每个counter减半，到达表末尾时结束本轮老化，并按频次为奇数的counter个数修正采样计数
+     *
+     * @param step 本次最多处理的slot数量
+     */
+    private void stepAging(int step) {
+        //Reduces every counter by half of its original value.
+        long[] table = this.table;
+        int cursor = agingCursor;
+        int end = (int) Math.min((long) cursor + step, table.length);
+        long count = 0;
+        for (int i = cursor; i < end; i++) {
+            //16个counter中频次为奇数的个数
+            count += Long.bitCount(table[i] & ONE_MASK);
+            //table[i] >>> 1，整体右移1位，其中每4个bit也右移1位，相当于除2。但每个counter的高位是上一个bit的低位，可能为1
+            //& RESET_MASK，抹去新counter的最高位，保留低三位。最终实现每个counter除2
+            //        1100 1001 0001 0010
+            // 右移1位 0110 0100 1000 1001
+            //  相与后 0110 0100 0000 0001
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        agingOddCount += count;
+        if (end < table.length) {
+            agingCursor = end;
+            return;
+        }
+        agingCursor = -1;
+        //等价于 (size - oddCount / 4) / 2，其中size在开始时已经减半
+        size = Math.max(0, size - (agingOddCount >>> 3));
+    }
+
+    /**
+     * 完成进行中的老化
+     */
+    private void finishAging() {
+        if (agingCursor >= 0) {
+            stepAging(Integer.MAX_VALUE);
+        }
+    }
+
+    private void resetTimeAging() {
+        agingCursor = -1;
+        agingOddCount = 0;
+        if (agingTicker != null) {
+            nextAgingTime = agingTicker.read() + agingInterval;
+        }
+    }
+
+    /**
+     * 将每个counter减半
+     */
+    private void reset() {
+        finishAging();
+        startAging();
+        finishAging();
+    }
+
+    /**
+     * 门卫中是否可能包含元素
+     *
+     * @param hash 打乱后的哈希值
+     * @return 如果可能包含返回true，否则false
+     */
+    private boolean doorkeeperContains(int hash) {
+        long h = hash * DOORKEEPER_SEED;
+        return (doorkeeper[((int) (h >>> 32)) & tableMask] & (1L << h)) != 0;
+    }
+
+    /**
+     * 将元素放入门卫
+     *
+     * @param hash 打乱后的哈希值
+     * @return 如果之前不包含返回true，否则false
+     */
+    private boolean doorkeeperPut(int hash) {
+        long h = hash * DOORKEEPER_SEED;
+        int index = ((int) (h >>> 32)) & tableMask;
+        long bit = 1L << h;
+        long word = doorkeeper[index];
+        if ((word & bit) != 0) return false;
+        doorkeeper[index] = word | bit;
+        return true;
+    }
+
+    private void restore(long[] table, long size) {
+        this.table = table;
+        this.tableMask = Math.max(0, table.length - 1);
+        this.sampleSize = 10L * table.length;
+        this.size = Math.max(0, Math.min(size, sampleSize - 1));
+        this.doorkeeper = doorkeeperEnabled ? new long[table.length] : null;
+        resetTimeAging();
+    }
+
+    private static int readSnapshotHeader(int magic, byte version, int length) throws IOException {
+        if (magic != SNAPSHOT_MAGIC) {
+            throw new IOException("The snapshot is not a frequency sketch");
+        }
+        if (version != SNAPSHOT_VERSION) {
+            throw new IOException("The snapshot version '" + version + "' is not supported");
+        }
+        if (length <= 0 || (length & (length - 1)) != 0 || length > (Integer.MAX_VALUE >>> 1)) {
+            throw new IOException("The snapshot table length '" + length + "' is illegal");
+        }
+        return length;
+    }
+
+    /**
+     * 16个counter逐个饱和相加
+     */
+    private static long saturatedAdd(long a, long b) {
+        if (b == 0) return a;
+        long result = 0;
+        for (int offset = 0; offset < 64; offset += 4) {
+            long sum = ((a >>> offset) & 0xfL) + ((b >>> offset) & 0xfL);
+            result |= Math.min(sum, 0xfL) << offset;
+        }
+        return result;
+    }
+
     /**
      * 64bit分为16个counter，在counter所在的4位bit加1，最大值15。
      *
@@ -183,6 +527,18 @@ public final class FrequencySketch {
      * @return 返回Slot索引
      */
     private int indexOfSlot(int itemHashCode, int spreadIndex) {
+        return indexOfSlot(itemHashCode, spreadIndex, tableMask);
+    }
+
+    /**
+     * 获取Slot索引。
+     *
+     * @param itemHashCode 项目元素的哈希值
+     * @param spreadIndex  分散hashCode值的索引,范围在0-3
+     * @param tableMask    表的掩码
+     * @return 返回Slot索引
+     */
+    static int indexOfSlot(int itemHashCode, int spreadIndex, int tableMask) {
         long hash = (itemHashCode + SPREAD[spreadIndex]) * SPREAD[spreadIndex];
         hash += (hash >>> 32);
         return ((int) hash) & tableMask;
@@ -191,7 +547,7 @@ public final class FrequencySketch {
     /**
      * 将补充哈希函数应用于给定的哈希代码，以抵御质量低劣的哈希函数。
      */
-    private int spread(int x) {
+    static int spread(int x) {
         x = ((x >>> 16) ^ x) * 0x45d9f3b;
         x = ((x >>> 16) ^ x) * 0x45d9f3b;
         return (x >>> 16) ^ x;
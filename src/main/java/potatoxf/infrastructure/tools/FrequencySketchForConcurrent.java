@@ -0,0 +1,197 @@
+package potatoxf.infrastructure.tools;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程安全且无锁的 {@link FrequencySketch}，计数布局与 {@link FrequencySketch} 相同。
+ * <p>
+ * 每个counter通过CAS增加，不会丢失计数；采样计数使用分段的 {@link LongAdder}，增加时不争用同一个缓存行，
+ * 只有约十六分之一的增加会汇总采样计数并与阈值比较，因此老化可能在越过阈值后稍晚开始；
+ * 老化按段分摊到之后的增加中，每次增加认领并减半接下来的一段slot，不会由单个线程执行整个老化过程。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class FrequencySketchForConcurrent implements FrequencyEstimator {
+    /*
+     * The counters are CAS-updated words of an AtomicLongArray, exactly as in FrequencySketch. The
+     * sample count is a LongAdder, so an increment only touches a cell that is, under contention,
+     * private to the thread, and the threshold is checked against the approximate sum on about one
+     * in sixteen increments. An aging pass may therefore start a few increments late, which is
+     * harmless for a frequency estimate.
+     *
+     * An aging pass is a cursor over the table. The thread that sees the threshold crossed moves the
+     * cursor from -1 to 0 and halves the sample count; from then on every increment claims the next
+     * AGING_STEP words by a CAS of the cursor and halves them with CAS, and the claim of the last
+     * words sets the cursor back to -1. frequency() reads the words at or after the cursor with their
+     * counters halved. A word whose step was claimed but is not yet halved is read unhalved for that
+     * short window, which only makes the estimate briefly too high.
+     */
+
+    private static final int SAMPLE_CHECK_MASK = 15;
+    private final LongAdder size = new LongAdder();
+    private final AtomicLong agingCount = new AtomicLong();
+    private volatile Table table;
+
+    /**
+     * 初始化table，表长度规则与 {@link FrequencySketch#ensureCapacity(long)} 相同，并发扩容时只有一个线程生效
+     *
+     * @param maximumSize 缓存的最大大小
+     */
+    @Override
+    public synchronized void ensureCapacity(long maximumSize) {
+        int maximum = (int) Math.min(Math.max(maximumSize, 1), Integer.MAX_VALUE >>> 1);
+        Table current = table;
+        if (current != null && current.array.length() >= maximum) return;
+        table = new Table(1 << -Integer.numberOfLeadingZeros(maximum - 1));
+        size.reset();
+    }
+
+    @Override
+    public boolean isNotInitialized() {
+        return table == null;
+    }
+
+    /**
+     * 获取采样大小
+     *
+     * @return 返回采样大小，未初始化返回0
+     */
+    public long getSampleSize() {
+        Table current = table;
+        return current == null ? 0 : current.sampleSize;
+    }
+
+    @Override
+    public long getAgingCount() {
+        return agingCount.get();
+    }
+
+    @Override
+    public int frequencyHash(int hashCode) {
+        Table current = table;
+        if (current == null) return 0;
+        int hash = FrequencySketch.spread(hashCode);
+        int start = (hash & 3) << 2;
+        int cursor = current.agingCursor.get();
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = FrequencySketch.indexOfSlot(hash, i, current.mask);
+            int count = (int) ((current.array.get(index) >>> ((start + i) << 2)) & 0xfL);
+            //老化进行中，尚未减半的slot按减半后的值读取
+            if (cursor >= 0 && index >= cursor) {
+                count >>>= 1;
+            }
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    @Override
+    public void incrementHash(int hashCode) {
+        Table current = table;
+        if (current == null) return;
+        if (current.agingCursor.get() >= 0) {
+            stepAging(current);
+        }
+
+        int hash = FrequencySketch.spread(hashCode);
+        int start = (hash & 3) << 2;
+
+        int index0 = FrequencySketch.indexOfSlot(hash, 0, current.mask);
+        int index1 = FrequencySketch.indexOfSlot(hash, 1, current.mask);
+        int index2 = FrequencySketch.indexOfSlot(hash, 2, current.mask);
+        int index3 = FrequencySketch.indexOfSlot(hash, 3, current.mask);
+
+        boolean added = incrementAtCounter(current.array, index0, start);
+        added |= incrementAtCounter(current.array, index1, start + 1);
+        added |= incrementAtCounter(current.array, index2, start + 2);
+        added |= incrementAtCounter(current.array, index3, start + 3);
+
+        if (added) {
+            size.increment();
+            if ((ThreadLocalRandom.current().nextInt() & SAMPLE_CHECK_MASK) == 0 && size.sum() >= current.sampleSize) {
+                startAging(current);
+            }
+        }
+    }
+
+    /**
+     * 通过CAS在counter所在的4位bit加1，最大值15。
+     *
+     * @param array        表
+     * @param slotIndex    slot索引
+     * @param counterIndex counter索引
+     * @return 如果成功增加则返回true，否则false
+     */
+    private static boolean incrementAtCounter(AtomicLongArray array, int slotIndex, int counterIndex) {
+        int offset = counterIndex << 2;
+        long mask = (0xFL << offset);
+        long increment = 1L << offset;
+        for (; ; ) {
+            long current = array.get(slotIndex);
+            if ((current & mask) == mask) return false;
+            if (array.compareAndSet(slotIndex, current, current + increment)) return true;
+        }
+    }
+
+    /**
+     * 开始新一轮老化，只有一个线程能够开始，采样计数先减半
+     */
+    private void startAging(Table current) {
+        if (current != table || !current.agingCursor.compareAndSet(-1, 0)) return;
+        agingCount.incrementAndGet();
+        size.add(-(size.sum() >>> 1));
+    }
+
+    /**
+     * 认领接下来的 {@link FrequencySketch#AGING_STEP} 个slot并将每个counter减半，
+     * 每个slot通过CAS更新，与并发的增加操作互不丢失，并按频次为奇数的counter个数修正采样计数
+     */
+    private void stepAging(Table current) {
+        AtomicLongArray array = current.array;
+        int start;
+        int end;
+        do {
+            start = current.agingCursor.get();
+            if (start < 0) return;
+            end = Math.min(start + FrequencySketch.AGING_STEP, array.length());
+        } while (!current.agingCursor.compareAndSet(start, end < array.length() ? end : -1));
+        long count = 0;
+        for (int i = start; i < end; i++) {
+            for (; ; ) {
+                long value = array.get(i);
+                if (array.compareAndSet(i, value, (value >>> 1) & FrequencySketch.RESET_MASK)) {
+                    count += Long.bitCount(value & FrequencySketch.ONE_MASK);
+                    break;
+                }
+            }
+        }
+        //等价于 oddCount / 4 / 2，采样计数在开始时已经减半
+        size.add(-(count >>> 3));
+    }
+
+    /**
+     * 表与掩码、采样大小、老化进度一起发布，避免读到不一致的组合
+     */
+    private static final class Table {
+        private final AtomicLongArray array;
+        private final int mask;
+        private final long sampleSize;
+        /**
+         * 老化进行中时为下一个待减半的slot，否则为-1
+         */
+        private final AtomicInteger agingCursor = new AtomicInteger(-1);
+
+        private Table(int length) {
+            this.array = new AtomicLongArray(length);
+            this.mask = Math.max(0, length - 1);
+            this.sampleSize = 10L * length;
+        }
+    }
+}
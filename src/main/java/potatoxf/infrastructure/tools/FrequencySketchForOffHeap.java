@@ -0,0 +1,352 @@
+package potatoxf.infrastructure.tools;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 堆外的 {@link FrequencySketch}，计数表位于直接内存或内存映射文件中，不受垃圾回收扫描，表长度按long索引，
+ * 可以超过 {@code Integer.MAX_VALUE >>> 1}。使用内存映射文件时，计数可以跨进程重启保留。
+ * 这元件的最大频率限制为15和周期性老化过程将所有元素的受欢迎程度减半，需要外部同步。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class FrequencySketchForOffHeap implements FrequencyEstimator, Closeable {
+    /*
+     * The counter matrix has the same layout as FrequencySketch, sixteen 4-bit counters per long, but
+     * the longs are stored in segments of direct or memory-mapped buffers of at most 2^27 longs (1 GiB)
+     * each, because a single buffer is int-indexed. A slot index is a long and selects the segment by
+     * its high bits and the byte offset by its low bits. The slot hash folds the high half of the
+     * 64-bit product into the low bits, so tables wider than 2^32 slots are still covered.
+     *
+     * A file-backed sketch keeps a 64-byte header in front of the table: magic, version, table length
+     * and the sample count. The counters themselves are written through the mapping, the sample count
+     * only by flush() and close(). Reopening a file whose table is at least as wide as requested reuses
+     * its counters; otherwise the table is recreated, which follows the contract of ensureCapacity().
+     * Growing a mapped sketch flushes the current mapping before it is released, so the file is
+     * consistent up to the point where it is truncated, and then discards the persisted counts.
+     *
+     * Aging is incremental as in FrequencySketch: a pass halves AGING_STEP words per increment and
+     * frequency() reads the words ahead of the cursor with their counters halved. The cursor is not
+     * persisted: flush() finishes a pass in progress before it writes the sample count, so the file
+     * never holds a half-aged table and a reopened sketch starts with no pass in progress.
+     */
+
+    // A mixture of seeds from FNV-1a, CityHash, and Murmur3
+    private static final long[] SPREAD = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final int SEGMENT_SHIFT = 27;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    // 表长度上限，2^40个slot，即8TiB
+    private static final long MAXIMUM_LENGTH = 1L << 40;
+    private static final int FILE_MAGIC = 0x46534B4F;
+    private static final byte FILE_VERSION = 1;
+    private static final int FILE_HEADER_BYTES = 64;
+    private static final int FILE_LENGTH_OFFSET = 8;
+    private static final int FILE_SIZE_OFFSET = 16;
+    // 每次增加时老化的slot数量
+    private static final int AGING_STEP = 64;
+    /**
+     * 持久化文件，为null时使用直接内存
+     */
+    @Getter
+    private final File file;
+    private RandomAccessFile randomAccessFile;
+    private MappedByteBuffer header;
+    private ByteBuffer[] segments;
+    @Getter
+    private long sampleSize;
+    @Getter
+    private long tableLength;
+    private long tableMask;
+    private long size;
+    // 下一个待老化的slot下标，-1表示当前没有进行中的老化
+    private long agingCursor = -1;
+    // 本轮老化中已处理的slot里频次为奇数的counter个数
+    private long agingOddCount;
+    // 已经开始的老化次数
+    @Getter
+    private long agingCount;
+
+    /**
+     * 使用直接内存
+     */
+    public FrequencySketchForOffHeap() {
+        this(null);
+    }
+
+    /**
+     * @param file 持久化文件，为null时使用直接内存
+     */
+    public FrequencySketchForOffHeap(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 初始化table，表长度为大于等于maximumSize的最小的2的整数倍，最大为2^40。sampleSize=10倍表长度。
+     * 使用持久化文件时，如果文件中的表足够大则沿用其中的频次；否则先刷入当前的映射，再重建文件中的表，
+     * 扩容会丢弃文件中已持久化的频次和采样计数
+     *
+     * @param maximumSize 缓存的最大大小
+     */
+    @Override
+    public void ensureCapacity(long maximumSize) {
+        long maximum = Math.min(Math.max(maximumSize, 1), MAXIMUM_LENGTH);
+        if (segments != null && tableLength >= maximum) return;
+        long length = 1L << -Long.numberOfLeadingZeros(maximum - 1);
+        try {
+            if (file == null) {
+                allocateDirect(length);
+            } else {
+                map(length);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map the sketch file '" + file + "'", e);
+        }
+    }
+
+    @Override
+    public boolean isNotInitialized() {
+        return segments == null;
+    }
+
+    @Override
+    public int frequencyHash(int hashCode) {
+        if (isNotInitialized()) return 0;
+        int hash = FrequencySketch.spread(hashCode);
+        int start = (hash & 3) << 2;
+        long cursor = agingCursor;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            long index = indexOfSlot(hash, i);
+            int count = (int) ((getSlot(index) >>> ((start + i) << 2)) & 0xfL);
+            //老化进行中，尚未减半的slot按减半后的值读取
+            if (cursor >= 0 && index >= cursor) {
+                count >>>= 1;
+            }
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    @Override
+    public void incrementHash(int hashCode) {
+        if (isNotInitialized()) return;
+        if (agingCursor >= 0) {
+            stepAging(AGING_STEP);
+        }
+
+        int hash = FrequencySketch.spread(hashCode);
+        int start = (hash & 3) << 2;
+
+        long index0 = indexOfSlot(hash, 0);
+        long index1 = indexOfSlot(hash, 1);
+        long index2 = indexOfSlot(hash, 2);
+        long index3 = indexOfSlot(hash, 3);
+
+        boolean added = incrementAtCounter(index0, start);
+        added |= incrementAtCounter(index1, start + 1);
+        added |= incrementAtCounter(index2, start + 2);
+        added |= incrementAtCounter(index3, start + 3);
+
+        if (added && ++size >= sampleSize && agingCursor < 0) {
+            startAging();
+        }
+    }
+
+    /**
+     * 完成进行中的老化，将采样计数写入文件头，并将映射的内容刷入磁盘，使用直接内存时不做任何事
+     */
+    public void flush() {
+        if (header == null) return;
+        if (agingCursor >= 0) {
+            stepAging(Integer.MAX_VALUE);
+        }
+        header.putLong(FILE_SIZE_OFFSET, size);
+        header.force();
+        for (ByteBuffer segment : segments) {
+            ((MappedByteBuffer) segment).force();
+        }
+    }
+
+    /**
+     * 刷入并关闭持久化文件，关闭后草图回到未初始化状态
+     *
+     * @throws IOException 如果发生I/O错误
+     */
+    @Override
+    public void close() throws IOException {
+        if (segments == null) return;
+        try {
+            flush();
+        } finally {
+            release();
+        }
+    }
+
+    private void allocateDirect(long length) {
+        ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes(length, i)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        install(segments, length, 0);
+    }
+
+    private void map(long length) throws IOException {
+        if (segments != null) {
+            flush();
+        }
+        release();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            long existing = readFileLength(randomAccessFile);
+            boolean reuse = existing >= length;
+            if (reuse) {
+                length = existing;
+            } else {
+                //重建时先截断，使新的表全部为零
+                randomAccessFile.setLength(0);
+                randomAccessFile.setLength(FILE_HEADER_BYTES + (length << 3));
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            long size = reuse ? Math.max(0, header.getLong(FILE_SIZE_OFFSET)) : 0;
+            header.putInt(0, FILE_MAGIC).put(4, FILE_VERSION).putLong(FILE_LENGTH_OFFSET, length).putLong(FILE_SIZE_OFFSET, size);
+            ByteBuffer[] segments = new ByteBuffer[segmentCount(length)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = FILE_HEADER_BYTES + ((long) i << (SEGMENT_SHIFT + 3));
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, segmentBytes(length, i)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            this.randomAccessFile = randomAccessFile;
+            this.header = header;
+            install(segments, length, size);
+        } catch (IOException | RuntimeException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取文件头中的表长度，文件头不合法或文件不完整时返回0
+     */
+    private static long readFileLength(RandomAccessFile randomAccessFile) throws IOException {
+        if (randomAccessFile.length() < FILE_HEADER_BYTES) return 0;
+        byte[] bytes = new byte[FILE_SIZE_OFFSET];
+        randomAccessFile.seek(0);
+        randomAccessFile.readFully(bytes);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != FILE_MAGIC || buffer.get(4) != FILE_VERSION) return 0;
+        long length = buffer.getLong(FILE_LENGTH_OFFSET);
+        if (length <= 0 || (length & (length - 1)) != 0 || length > MAXIMUM_LENGTH) return 0;
+        return randomAccessFile.length() < FILE_HEADER_BYTES + (length << 3) ? 0 : length;
+    }
+
+    private void install(ByteBuffer[] segments, long length, long size) {
+        this.segments = segments;
+        this.tableLength = length;
+        this.tableMask = length - 1;
+        this.sampleSize = 10L * length;
+        this.size = Math.min(size, sampleSize - 1);
+        this.agingCursor = -1;
+        this.agingOddCount = 0;
+    }
+
+    private void release() throws IOException {
+        segments = null;
+        header = null;
+        tableLength = 0;
+        if (randomAccessFile != null) {
+            RandomAccessFile randomAccessFile = this.randomAccessFile;
+            this.randomAccessFile = null;
+            randomAccessFile.close();
+        }
+    }
+
+    private static int segmentCount(long length) {
+        return (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    }
+
+    private static int segmentBytes(long length, int segment) {
+        return (int) (Math.min(length - ((long) segment << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT) << 3);
+    }
+
+    private long getSlot(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong(((int) index & SEGMENT_MASK) << 3);
+    }
+
+    private void putSlot(long index, long value) {
+        segments[(int) (index >>> SEGMENT_SHIFT)].putLong(((int) index & SEGMENT_MASK) << 3, value);
+    }
+
+    /**
+     * 64bit分为16个counter，在counter所在的4位bit加1，最大值15。
+     *
+     * @param slotIndex    slot索引
+     * @param counterIndex counter索引
+     * @return 如果成功增加则返回true，否则false
+     */
+    private boolean incrementAtCounter(long slotIndex, int counterIndex) {
+        int offset = counterIndex << 2;
+        long mask = (0xFL << offset);
+        long slot = getSlot(slotIndex);
+        if ((slot & mask) == mask) return false;
+        putSlot(slotIndex, slot + (1L << offset));
+        return true;
+    }
+
+    /**
+     * 开始新一轮老化，采样计数先减半
+     */
+    private void startAging() {
+        agingCount++;
+        agingCursor = 0;
+        agingOddCount = 0;
+        size >>>= 1;
+    }
+
+    /**
+     * 将接下来的slot中每个counter减半，到达表末尾时结束本轮老化，并按频次为奇数的counter个数修正采样计数
+     *
+     * @param step 本次最多处理的slot数量
+     */
+    private void stepAging(int step) {
+        long cursor = agingCursor;
+        long end = Math.min(cursor + step, tableLength);
+        long count = 0;
+        for (long i = cursor; i < end; i++) {
+            long slot = getSlot(i);
+            count += Long.bitCount(slot & FrequencySketch.ONE_MASK);
+            putSlot(i, (slot >>> 1) & FrequencySketch.RESET_MASK);
+        }
+        agingOddCount += count;
+        if (end < tableLength) {
+            agingCursor = end;
+            return;
+        }
+        agingCursor = -1;
+        size = Math.max(0, size - (agingOddCount >>> 3));
+    }
+
+    /**
+     * 获取Slot索引，将64位乘积的高位折叠到低位，使超过2^32的表也能被覆盖
+     *
+     * @param itemHashCode 项目元素的哈希值
+     * @param spreadIndex  分散hashCode值的索引,范围在0-3
+     * @return 返回Slot索引
+     */
+    private long indexOfSlot(int itemHashCode, int spreadIndex) {
+        long hash = (itemHashCode + SPREAD[spreadIndex]) * SPREAD[spreadIndex];
+        hash ^= (hash >>> 29);
+        hash *= SPREAD[(spreadIndex + 1) & 3];
+        return (hash ^ (hash >>> 32)) & tableMask;
+    }
+}
@@ -0,0 +1,338 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数线性分桶的延迟直方图，与HdrHistogram类似，内存固定，记录无锁。
+ * 每个2的幂区间均分为 {@code 2^precision} 个桶，相对误差不超过 {@code 2^-precision}。
+ * <p>
+ * 成功和失败的耗时都记入直方图，{@link CounterForOperate} 的次数和时间为创建以来的累计值，不受 {@link #snapshotAndReset()} 影响。
+ * 可以在每个线程或实例各自记录，再通过 {@link #merge(Snapshot)} 或 {@link Snapshot#merge(Snapshot)} 合并。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class LatencyHistogram implements CounterForOperate {
+    /*
+     * A value below 2^p goes to the bucket of the same index. A larger value with its highest bit at
+     * position e is shifted right by e - p, which leaves p + 1 significant bits whose top bit is
+     * always set; the remaining p bits select the sub-bucket, and the shift selects the group of
+     * 2^p buckets. Every group covers twice the range of the previous one with the same number of
+     * buckets, so the width of a bucket is always within 2^-p of the values it holds.
+     *
+     * An interval snapshot resets every bucket with getAndSet, so each recorded value is counted in
+     * exactly one interval without any coordination with the recording threads. The snapshot is
+     * not an atomic cut across buckets: values recorded while it runs land in either interval.
+     */
+
+    private static final int DEFAULT_PRECISION = 5;
+    private final int precision;
+    private final AtomicLongArray counts;
+    private final AtomicLong minimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximum = new AtomicLong(Long.MIN_VALUE);
+    private final CounterForOperate totals = new CounterForOperateForStriped();
+
+    /**
+     * 精度为5位，相对误差约3%
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision 精度位数，1到10
+     */
+    public LatencyHistogram(int precision) {
+        Arg.check(precision >= 1 && precision <= 10, () -> "The precision must between 1 and 10,but the value is '" + precision + "'");
+        this.precision = precision;
+        this.counts = new AtomicLongArray(bucketCount(precision));
+    }
+
+    @Override
+    public void recordSuccess(long time) {
+        record(time);
+        totals.recordSuccess(time);
+    }
+
+    @Override
+    public void recordFailure(long time) {
+        record(time);
+        totals.recordFailure(time);
+    }
+
+    @Override
+    public long successCount() {
+        return totals.successCount();
+    }
+
+    @Override
+    public long successTimeCount() {
+        return totals.successTimeCount();
+    }
+
+    @Override
+    public long failureCount() {
+        return totals.failureCount();
+    }
+
+    @Override
+    public long failureTimeCount() {
+        return totals.failureTimeCount();
+    }
+
+    /**
+     * 获取自创建或上一次重置以来的百分位数
+     *
+     * @param percentile 百分位，0到100
+     * @return 返回百分位数，没有记录时返回0
+     */
+    public long percentile(double percentile) {
+        return snapshot().percentile(percentile);
+    }
+
+    /**
+     * 获取自创建或上一次重置以来的最小值
+     *
+     * @return 返回最小值，没有记录时返回0
+     */
+    public long min() {
+        long min = minimum.get();
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * 获取自创建或上一次重置以来的最大值
+     *
+     * @return 返回最大值，没有记录时返回0
+     */
+    public long max() {
+        long max = maximum.get();
+        return max == Long.MIN_VALUE ? 0 : max;
+    }
+
+    /**
+     * 获取自创建或上一次重置以来的快照，不重置
+     *
+     * @return 返回 {@link Snapshot}
+     */
+    public Snapshot snapshot() {
+        long[] values = new long[counts.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = counts.get(i);
+        }
+        return new Snapshot(precision, values, minimum.get(), maximum.get());
+    }
+
+    /**
+     * 获取自创建或上一次重置以来的快照并重置，每个记录只会出现在一个区间的快照中
+     *
+     * @return 返回 {@link Snapshot}
+     */
+    public Snapshot snapshotAndReset() {
+        long min = minimum.getAndSet(Long.MAX_VALUE);
+        long max = maximum.getAndSet(Long.MIN_VALUE);
+        long[] values = new long[counts.length()];
+        for (int i = 0; i < values.length; i++) {
+            if (counts.get(i) != 0) {
+                values[i] = counts.getAndSet(i, 0);
+            }
+        }
+        return new Snapshot(precision, values, min, max);
+    }
+
+    /**
+     * 将快照合并到此直方图，快照的精度必须相同，不影响累计的次数和时间
+     *
+     * @param snapshot 快照
+     */
+    public void merge(Snapshot snapshot) {
+        Objects.requireNonNull(snapshot, "The snapshot must be not null");
+        Arg.check(snapshot.precision == precision, () -> "The precision must be '" + precision + "',but the value is '" + snapshot.precision + "'");
+        for (int i = 0; i < snapshot.counts.length; i++) {
+            if (snapshot.counts[i] != 0) {
+                counts.addAndGet(i, snapshot.counts[i]);
+            }
+        }
+        if (snapshot.count > 0) {
+            updateMinimum(snapshot.minimum);
+            updateMaximum(snapshot.maximum);
+        }
+    }
+
+    @Override
+    public String toString() {
+        Snapshot snapshot = snapshot();
+        return Com.buildToString("successCount", successCount(), "failureCount", failureCount(), "min", snapshot.min(),
+                "p50", snapshot.percentile(50), "p99", snapshot.percentile(99), "p999", snapshot.percentile(99.9), "max", snapshot.max());
+    }
+
+    private void record(long time) {
+        long value = Math.max(0, time);
+        counts.incrementAndGet(indexOf(value, precision));
+        updateMinimum(value);
+        updateMaximum(value);
+    }
+
+    private void updateMinimum(long value) {
+        long current = minimum.get();
+        while (value < current && !minimum.compareAndSet(current, value)) {
+            current = minimum.get();
+        }
+    }
+
+    private void updateMaximum(long value) {
+        long current = maximum.get();
+        while (value > current && !maximum.compareAndSet(current, value)) {
+            current = maximum.get();
+        }
+    }
+
+    private static int bucketCount(int precision) {
+        return (64 - precision) << precision;
+    }
+
+    /**
+     * 计算非负值所在的桶
+     */
+    static int indexOf(long value, int precision) {
+        if (value < (1L << precision)) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precision;
+        return ((shift + 1) << precision) | (int) ((value >>> shift) & ((1L << precision) - 1));
+    }
+
+    /**
+     * 计算桶的最小值
+     */
+    static long lowestValue(int index, int precision) {
+        if (index < (1 << precision)) return index;
+        int shift = (index >>> precision) - 1;
+        long mantissa = (1L << precision) | (index & ((1 << precision) - 1));
+        return mantissa << shift;
+    }
+
+    /**
+     * 计算桶的最大值
+     */
+    static long highestValue(int index, int precision) {
+        if (index < (1 << precision)) return index;
+        int shift = (index >>> precision) - 1;
+        return lowestValue(index, precision) + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图的不可变快照
+     */
+    public static final class Snapshot {
+        private final int precision;
+        private final long[] counts;
+        private final long count;
+        private final long minimum;
+        private final long maximum;
+
+        private Snapshot(int precision, long[] counts, long minimum, long maximum) {
+            this.precision = precision;
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+            this.minimum = minimum;
+            this.maximum = maximum;
+        }
+
+        /**
+         * 获取记录次数
+         *
+         * @return 返回记录次数
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * 获取最小值
+         *
+         * @return 返回最小值，没有记录时返回0
+         */
+        public long min() {
+            return count == 0 || minimum == Long.MAX_VALUE ? 0 : minimum;
+        }
+
+        /**
+         * 获取最大值
+         *
+         * @return 返回最大值，没有记录时返回0
+         */
+        public long max() {
+            return count == 0 || maximum == Long.MIN_VALUE ? 0 : maximum;
+        }
+
+        /**
+         * 获取平均值，按桶的中间值估计
+         *
+         * @return 返回平均值，没有记录时返回0
+         */
+        public double mean() {
+            if (count == 0) return 0;
+            double total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    total += counts[i] * ((lowestValue(i, precision) + (double) highestValue(i, precision)) / 2);
+                }
+            }
+            return total / count;
+        }
+
+        /**
+         * 获取百分位数，返回所在桶的最大值，并限制在最小值和最大值之间
+         *
+         * @param percentile 百分位，0到100
+         * @return 返回百分位数，没有记录时返回0
+         */
+        public long percentile(double percentile) {
+            Arg.check(percentile >= 0 && percentile <= 100, () -> "The percentile must between 0 and 100,but the value is '" + percentile + "'");
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= rank) {
+                    return Math.max(min(), Math.min(max(), highestValue(i, precision)));
+                }
+            }
+            return max();
+        }
+
+        /**
+         * 合并两个快照，精度必须相同
+         *
+         * @param other 另一个快照
+         * @return 返回新的快照
+         */
+        public Snapshot merge(Snapshot other) {
+            Objects.requireNonNull(other, "The other must be not null");
+            Arg.check(other.precision == precision, () -> "The precision must be '" + precision + "',but the value is '" + other.precision + "'");
+            long[] merged = Arrays.copyOf(counts, counts.length);
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            long min = Math.min(count == 0 ? Long.MAX_VALUE : minimum, other.count == 0 ? Long.MAX_VALUE : other.minimum);
+            long max = Math.max(count == 0 ? Long.MIN_VALUE : maximum, other.count == 0 ? Long.MIN_VALUE : other.maximum);
+            return new Snapshot(precision, merged, min, max);
+        }
+
+        @Override
+        public String toString() {
+            return Com.buildToString("count", count(), "min", min(), "mean", mean(), "p50", percentile(50),
+                    "p99", percentile(99), "max", max());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Com;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 指数加权移动平均的速率计，提供1分钟、5分钟和15分钟的平滑速率，单位为每秒次数。
+ * <p>
+ * 作为 {@link CounterForOperateDelegate} 包装已有的 {@link CounterForOperate}，成功和失败的记录都计入速率，
+ * 次数和时间的统计仍由被包装的统计器负责，调用处不需要修改。
+ * 时间来自以纳秒计的 {@link TimeTicker}，每5秒衰减一次，衰减在记录或读取时顺带完成，不需要后台线程。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class Meter implements CounterForOperateDelegate {
+    /*
+     * Recording only adds to a LongAdder and compares the ticker with the time of the last tick. The
+     * thread that moves the last tick forward with a CAS owns the interval: it takes the events
+     * counted since the previous tick as the difference of the monotonic sum, so no event is lost
+     * between the read and a reset, and folds them into the three averages. When several intervals
+     * passed without any activity the events go into the first one and the others decay with zero.
+     *
+     * An owner may stall after its CAS until the next interval's owner runs, so the sum consumed so
+     * far is an AtomicLong advanced with a max: each owner takes only the part of its sum beyond it,
+     * which counts every event once and never goes negative. The averages are updated under their
+     * own monitor, as overlapping owners may tick them at the same time, and read through volatile
+     * fields.
+     */
+
+    private static final long TICK_INTERVAL = TimeUnit.SECONDS.toNanos(5);
+    private final CounterForOperate counterForOperate;
+    private final TimeTicker ticker;
+    private final LongAdder count = new LongAdder();
+    private final AtomicLong lastTick;
+    private final long startTime;
+    private final Rate oneMinuteRate = new Rate(1);
+    private final Rate fiveMinuteRate = new Rate(5);
+    private final Rate fifteenMinuteRate = new Rate(15);
+    private final AtomicLong lastCount = new AtomicLong();
+
+    /**
+     * 包装 {@link CounterForOperate#striped()}，使用 {@link TimeTicker#systemTicker()}
+     */
+    public Meter() {
+        this(CounterForOperate.striped());
+    }
+
+    /**
+     * 使用 {@link TimeTicker#systemTicker()}
+     *
+     * @param counterForOperate 被包装的统计器
+     */
+    public Meter(CounterForOperate counterForOperate) {
+        this(counterForOperate, TimeTicker.systemTicker());
+    }
+
+    /**
+     * @param counterForOperate 被包装的统计器
+     * @param ticker            以纳秒计的时间源
+     */
+    public Meter(CounterForOperate counterForOperate, TimeTicker ticker) {
+        this.counterForOperate = Objects.requireNonNull(counterForOperate, "The counterForOperate must be not null");
+        this.ticker = Objects.requireNonNull(ticker, "The ticker must be not null");
+        this.startTime = ticker.read();
+        this.lastTick = new AtomicLong(startTime);
+    }
+
+    /**
+     * 获取代理 {@link CounterForOperate}
+     *
+     * @return 返回代理{@link CounterForOperate}
+     */
+    @Override
+    public CounterForOperate delegateCounterForOperate() {
+        return counterForOperate;
+    }
+
+    @Override
+    public void recordSuccess(long time) {
+        counterForOperate.recordSuccess(time);
+        mark(1);
+    }
+
+    @Override
+    public void recordFailure(long time) {
+        counterForOperate.recordFailure(time);
+        mark(1);
+    }
+
+    /**
+     * 只记录事件，不记录到被包装的统计器
+     *
+     * @param n 事件次数
+     */
+    public void mark(long n) {
+        tickIfNecessary();
+        count.add(n);
+    }
+
+    /**
+     * 获取速率计记录的事件总数
+     *
+     * @return 返回事件总数
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 获取1分钟的平滑速率
+     *
+     * @return 返回每秒次数
+     */
+    public double oneMinuteRate() {
+        tickIfNecessary();
+        return oneMinuteRate.rate;
+    }
+
+    /**
+     * 获取5分钟的平滑速率
+     *
+     * @return 返回每秒次数
+     */
+    public double fiveMinuteRate() {
+        tickIfNecessary();
+        return fiveMinuteRate.rate;
+    }
+
+    /**
+     * 获取15分钟的平滑速率
+     *
+     * @return 返回每秒次数
+     */
+    public double fifteenMinuteRate() {
+        tickIfNecessary();
+        return fifteenMinuteRate.rate;
+    }
+
+    /**
+     * 获取创建以来的平均速率
+     *
+     * @return 返回每秒次数
+     */
+    public double meanRate() {
+        long elapsed = ticker.read() - startTime;
+        return elapsed <= 0 ? 0.0d : count.sum() * 1e9d / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("count", count(), "oneMinuteRate", oneMinuteRate(), "fiveMinuteRate", fiveMinuteRate(),
+                "fifteenMinuteRate", fifteenMinuteRate(), "meanRate", meanRate());
+    }
+
+    private void tickIfNecessary() {
+        long oldTick = lastTick.get();
+        long age = ticker.read() - oldTick;
+        if (age < TICK_INTERVAL) return;
+        long newTick = oldTick + age - age % TICK_INTERVAL;
+        if (!lastTick.compareAndSet(oldTick, newTick)) return;
+        long current = count.sum();
+        long events = Math.max(0, current - lastCount.getAndAccumulate(current, Math::max));
+        for (long i = age / TICK_INTERVAL; i > 0; i--) {
+            oneMinuteRate.tick(events);
+            fiveMinuteRate.tick(events);
+            fifteenMinuteRate.tick(events);
+            events = 0;
+        }
+    }
+
+    private static final class Rate {
+        private final double alpha;
+        private volatile double rate;
+        private boolean initialized;
+
+        private Rate(int minutes) {
+            this.alpha = 1 - Math.exp(-(double) TICK_INTERVAL / TimeUnit.MINUTES.toNanos(minutes));
+        }
+
+        private synchronized void tick(long events) {
+            double instantRate = events * 1e9d / TICK_INTERVAL;
+            if (initialized) {
+                rate += alpha * (instantRate - rate);
+            } else {
+                rate = instantRate;
+                initialized = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Arg;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 指标名称，由名称和按键排序的标签组成，标签顺序不影响相等性
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class MetricName implements Comparable<MetricName> {
+    private static final String[] NO_TAGS = new String[0];
+    private final String name;
+    /**
+     * 按键排序的键值对，偶数位为键，奇数位为值
+     */
+    private final String[] tags;
+    private final int hashCode;
+
+    private MetricName(String name, String[] tags) {
+        this.name = name;
+        this.tags = tags;
+        this.hashCode = 31 * name.hashCode() + Arrays.hashCode(tags);
+    }
+
+    /**
+     * @param name 名称
+     * @param tags 标签的键值对，键不能重复
+     * @return 返回 {@link MetricName}
+     */
+    public static MetricName of(String name, String... tags) {
+        Objects.requireNonNull(name, "The name must be not null");
+        Arg.check(!name.isEmpty(), () -> "The name must be not empty");
+        Arg.check(tags.length % 2 == 0, () -> "The tags must be key value pairs,but the length is '" + tags.length + "'");
+        if (tags.length == 0) return new MetricName(name, NO_TAGS);
+        TreeMap<String, String> sorted = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            String key = Objects.requireNonNull(tags[i], "The tag key must be not null");
+            String value = Objects.requireNonNull(tags[i + 1], "The tag value must be not null");
+            Arg.check(sorted.put(key, value) == null, () -> "The tag key must be unique,but the key '" + key + "' is repeated");
+        }
+        String[] pairs = new String[tags.length];
+        int i = 0;
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            pairs[i++] = entry.getKey();
+            pairs[i++] = entry.getValue();
+        }
+        return new MetricName(name, pairs);
+    }
+
+    /**
+     * 获取名称
+     *
+     * @return 返回名称
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 获取标签数量
+     *
+     * @return 返回标签数量
+     */
+    public int tagCount() {
+        return tags.length / 2;
+    }
+
+    /**
+     * 获取标签的键
+     *
+     * @param index 按键排序的索引
+     * @return 返回键
+     */
+    public String tagKey(int index) {
+        return tags[index * 2];
+    }
+
+    /**
+     * 获取标签的值
+     *
+     * @param index 按键排序的索引
+     * @return 返回值
+     */
+    public String tagValue(int index) {
+        return tags[index * 2 + 1];
+    }
+
+    @Override
+    public int compareTo(MetricName other) {
+        int c = name.compareTo(other.name);
+        for (int i = 0; c == 0 && i < Math.min(tags.length, other.tags.length); i++) {
+            c = tags[i].compareTo(other.tags[i]);
+        }
+        return c != 0 ? c : Integer.compare(tags.length, other.tags.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MetricName)) return false;
+        MetricName that = (MetricName) o;
+        return hashCode == that.hashCode && name.equals(that.name) && Arrays.equals(tags, that.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name);
+        if (tags.length > 0) {
+            sb.append('{');
+            for (int i = 0; i < tags.length; i += 2) {
+                if (i > 0) sb.append(',');
+                sb.append(tags[i]).append('=').append(tags[i + 1]);
+            }
+            sb.append('}');
+        }
+        return sb.toString();
+    }
+}
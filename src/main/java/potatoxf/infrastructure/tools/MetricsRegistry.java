@@ -0,0 +1,251 @@
+package potatoxf.infrastructure.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 进程内的指标注册表，按名称和标签去重地创建和收集统计器、速率计、直方图和仪表。
+ * <p>
+ * 支持的指标为 {@link CounterForInquire}、{@link CounterForOperate}、{@link Meter}、{@link LatencyHistogram}
+ * 和作为仪表的 {@link DoubleSupplier}，已有的统计器可以通过 {@link #register(String, Object, String...)} 加入。
+ * 同一个名称下的所有标签只能注册同一种指标，种类不同时抛出 {@link IllegalArgumentException}；
+ * 名称在Prometheus格式中将非法字符替换为下划线，替换后相同的不同名称（如 {@code a.b} 和 {@code a_b}）也会被拒绝。
+ * 名称的种类在第一次注册时确定，移除指标后不会改变。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class MetricsRegistry {
+    /*
+     * Metrics live in a ConcurrentHashMap: lookups of registered metrics are plain reads, and a new
+     * metric is created outside the map and published with putIfAbsent, so a losing thread discards
+     * its instance and uses the winner's. Recording threads hold the metric itself and never touch
+     * the registry. A snapshot walks the map with its weakly consistent iterator and reads each
+     * metric's adders and atomic arrays, which never blocks a writer; the cost is proportional to the
+     * number of metrics and is paid only by the thread taking the snapshot.
+     *
+     * A Prometheus family has a single type, and the exposition merges names that sanitize to the
+     * same string. So every sanitized base name is bound to the first name and kind registered under
+     * it, before the metric is published, and a different kind or a colliding name is rejected.
+     */
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private final ConcurrentHashMap<MetricName, Object> metrics = new ConcurrentHashMap<>();
+    /**
+     * Prometheus格式的名称到第一次注册的名称和种类
+     */
+    private final ConcurrentHashMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * 获取或创建查询统计器
+     *
+     * @param name 名称
+     * @param tags 标签的键值对
+     * @return 返回 {@link CounterForInquire}
+     */
+    public CounterForInquire inquire(String name, String... tags) {
+        return getOrCreate(MetricName.of(name, tags), CounterForInquire.class, CounterForInquire::of);
+    }
+
+    /**
+     * 获取或创建操作统计器，使用 {@link CounterForOperate#striped()}
+     *
+     * @param name 名称
+     * @param tags 标签的键值对
+     * @return 返回 {@link CounterForOperate}
+     */
+    public CounterForOperate operate(String name, String... tags) {
+        return getOrCreate(MetricName.of(name, tags), CounterForOperate.class, CounterForOperate::striped);
+    }
+
+    /**
+     * 获取或创建速率计
+     *
+     * @param name 名称
+     * @param tags 标签的键值对
+     * @return 返回 {@link Meter}
+     */
+    public Meter meter(String name, String... tags) {
+        return getOrCreate(MetricName.of(name, tags), Meter.class, Meter::new);
+    }
+
+    /**
+     * 获取或创建延迟直方图
+     *
+     * @param name 名称
+     * @param tags 标签的键值对
+     * @return 返回 {@link LatencyHistogram}
+     */
+    public LatencyHistogram histogram(String name, String... tags) {
+        return getOrCreate(MetricName.of(name, tags), LatencyHistogram.class, LatencyHistogram::new);
+    }
+
+    /**
+     * 注册仪表，已注册时返回已有的仪表
+     *
+     * @param name  名称
+     * @param gauge 仪表，在采集快照时调用，应当快速且线程安全
+     * @param tags  标签的键值对
+     * @return 返回已注册的仪表
+     */
+    public DoubleSupplier gauge(String name, DoubleSupplier gauge, String... tags) {
+        Objects.requireNonNull(gauge, "The gauge must be not null");
+        return getOrCreate(MetricName.of(name, tags), DoubleSupplier.class, () -> gauge);
+    }
+
+    /**
+     * 注册已有的指标，已注册时返回已有的指标
+     *
+     * @param name   名称
+     * @param metric 指标，必须是支持的指标种类
+     * @param tags   标签的键值对
+     * @return 返回已注册的指标
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T register(String name, T metric, String... tags) {
+        Objects.requireNonNull(metric, "The metric must be not null");
+        Class<Object> type = (Class<Object>) typeOf(metric);
+        Arg.check(type != null, () -> "The metric must be a supported metric,but the type is '" + metric.getClass().getName() + "'");
+        return (T) getOrCreate(MetricName.of(name, tags), type, () -> metric);
+    }
+
+    /**
+     * 移除指标
+     *
+     * @param name 名称
+     * @param tags 标签的键值对
+     * @return 返回被移除的指标，如果不存在返回null
+     */
+    public Object remove(String name, String... tags) {
+        return metrics.remove(MetricName.of(name, tags));
+    }
+
+    /**
+     * 获取指标数量
+     *
+     * @return 返回指标数量
+     */
+    public int size() {
+        return metrics.size();
+    }
+
+    /**
+     * 采集所有指标的快照，不阻塞记录线程
+     *
+     * @return 返回 {@link MetricsSnapshot}
+     */
+    public MetricsSnapshot snapshot() {
+        long timestamp = System.currentTimeMillis();
+        List<MetricsSnapshot.Entry> entries = new ArrayList<>(metrics.size());
+        for (Map.Entry<MetricName, Object> entry : metrics.entrySet()) {
+            entries.add(MetricsSnapshot.capture(entry.getKey(), entry.getValue()));
+        }
+        Collections.sort(entries);
+        return new MetricsSnapshot(timestamp, entries);
+    }
+
+    /**
+     * 启动用于本地抓取的HTTP端点，{@code /metrics} 返回Prometheus文本格式，{@code /metrics/json} 返回JSON。
+     * 使用单个分发线程，通过 {@link HttpServer#stop(int)} 停止。
+     *
+     * @param address 监听地址
+     * @return 返回已启动的 {@link HttpServer}
+     * @throws IOException 如果无法监听地址
+     */
+    public HttpServer serve(InetSocketAddress address) throws IOException {
+        Objects.requireNonNull(address, "The address must be not null");
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            try {
+                boolean json = exchange.getRequestURI().getPath().endsWith("/json");
+                MetricsSnapshot snapshot = snapshot();
+                exchange.getResponseHeaders().set("Content-Type", json ? JSON_CONTENT_TYPE : PROMETHEUS_CONTENT_TYPE);
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                    return;
+                }
+                exchange.sendResponseHeaders(200, 0);
+                respond(exchange, snapshot, json);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("size", size());
+    }
+
+    private static void respond(HttpExchange exchange, MetricsSnapshot snapshot, boolean json) throws IOException {
+        try (OutputStream body = exchange.getResponseBody();
+             Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8)) {
+            if (json) {
+                snapshot.writeJson(writer);
+            } else {
+                snapshot.writePrometheus(writer);
+            }
+        }
+    }
+
+    private <T> T getOrCreate(MetricName name, Class<T> type, Supplier<? extends T> factory) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            Family family = families.computeIfAbsent(MetricsSnapshot.sanitize(name.name()), key -> new Family(name.name(), type));
+            Arg.check(family.name.equals(name.name()), () -> "The metric name '" + name.name() + "' collides with '" + family.name + "' in the Prometheus format");
+            Arg.check(family.type == type, () -> "The metric name '" + name.name() + "' is already registered as '" + family.type.getSimpleName() + "'");
+            T created = factory.get();
+            metric = metrics.putIfAbsent(name, created);
+            if (metric == null) return created;
+        }
+        Object existing = metric;
+        Arg.check(type == typeOf(existing), () -> "The metric '" + name + "' is already registered as '" + typeOf(existing).getSimpleName() + "'");
+        return type.cast(existing);
+    }
+
+    /**
+     * 获取指标的种类，与快照中的 {@link MetricsSnapshot.Kind} 对应
+     */
+    private static Class<?> typeOf(Object metric) {
+        if (metric instanceof LatencyHistogram) return LatencyHistogram.class;
+        if (metric instanceof Meter) return Meter.class;
+        if (metric instanceof CounterForOperate) return CounterForOperate.class;
+        if (metric instanceof CounterForInquire) return CounterForInquire.class;
+        if (metric instanceof DoubleSupplier) return DoubleSupplier.class;
+        return null;
+    }
+
+    /**
+     * 名称的种类
+     */
+    private static final class Family {
+        private final String name;
+        private final Class<?> type;
+
+        private Family(String name, Class<?> type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+}
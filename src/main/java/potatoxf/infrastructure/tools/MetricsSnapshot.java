@@ -0,0 +1,376 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Com;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 指标的不可变快照，每个指标的值在采集时读取一次，可以导出为Prometheus文本格式或JSON。
+ * 采集只读取各统计器的累加值，不会阻塞记录线程；不同指标不是在同一时刻读取的。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class MetricsSnapshot {
+    private final long timestamp;
+    private final List<Entry> entries;
+
+    MetricsSnapshot(long timestamp, List<Entry> entries) {
+        this.timestamp = timestamp;
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 读取指标的当前值
+     *
+     * @param name   指标名称
+     * @param metric 指标
+     * @return 返回 {@link Entry}
+     */
+    static Entry capture(MetricName name, Object metric) {
+        if (metric instanceof LatencyHistogram) {
+            LatencyHistogram histogram = (LatencyHistogram) metric;
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            return new Entry(name, Kind.HISTOGRAM, histogram.totalCount(), histogram.totalTimeCount(), snapshot.min(), snapshot.max(),
+                    snapshot.percentile(50), snapshot.percentile(90), snapshot.percentile(99), snapshot.percentile(99.9));
+        }
+        if (metric instanceof Meter) {
+            Meter meter = (Meter) metric;
+            return new Entry(name, Kind.METER, meter.count(), meter.oneMinuteRate(), meter.fiveMinuteRate(),
+                    meter.fifteenMinuteRate(), meter.meanRate());
+        }
+        if (metric instanceof CounterForOperate) {
+            CounterForOperate counter = (CounterForOperate) metric;
+            return new Entry(name, Kind.OPERATE, counter.successCount(), counter.successTimeCount(),
+                    counter.failureCount(), counter.failureTimeCount());
+        }
+        if (metric instanceof CounterForInquire) {
+            CounterForInquire counter = (CounterForInquire) metric;
+            return new Entry(name, Kind.INQUIRE, counter.hitCount(), counter.missCount());
+        }
+        return new Entry(name, Kind.GAUGE, ((DoubleSupplier) metric).getAsDouble());
+    }
+
+    /**
+     * 获取采集时间
+     *
+     * @return 返回毫秒时间戳
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 获取按名称排序的指标
+     *
+     * @return 返回不可修改的列表
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * 导出为Prometheus文本格式
+     *
+     * @return 返回文本
+     */
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder(entries.size() * 64);
+        writePrometheus(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 导出为Prometheus文本格式，同一个指标族的样本连续输出
+     *
+     * @param out 输出
+     */
+    public void writePrometheus(Appendable out) {
+        Map<String, List<String>> families = new TreeMap<>();
+        Map<String, String> types = new TreeMap<>();
+        StringBuilder line = new StringBuilder();
+        for (Entry entry : entries) {
+            String base = sanitize(entry.name.name());
+            Field[] fields = entry.kind.fields;
+            for (int i = 0; i < fields.length; i++) {
+                Field field = fields[i];
+                String family = base + field.family;
+                types.putIfAbsent(family, field.type);
+                line.setLength(0);
+                line.append(base).append(field.sample);
+                appendLabels(line, entry.name, field.quantile);
+                line.append(' ').append(formatPrometheus(entry.values[i]));
+                families.computeIfAbsent(family, key -> new ArrayList<>()).add(line.toString());
+            }
+        }
+        try {
+            for (Map.Entry<String, List<String>> family : families.entrySet()) {
+                out.append("# TYPE ").append(family.getKey()).append(' ').append(types.get(family.getKey())).append('\n');
+                for (String sample : family.getValue()) {
+                    out.append(sample).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 导出为JSON
+     *
+     * @return 返回JSON文本
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(entries.size() * 128);
+        writeJson(sb);
+        return sb.toString();
+    }
+
+    /**
+     * 导出为JSON，非有限数值输出为null
+     *
+     * @param out 输出
+     */
+    public void writeJson(Appendable out) {
+        try {
+            out.append("{\"timestamp\":").append(Long.toString(timestamp)).append(",\"metrics\":[");
+            for (int e = 0; e < entries.size(); e++) {
+                Entry entry = entries.get(e);
+                if (e > 0) out.append(',');
+                out.append("{\"name\":");
+                appendJsonString(out, entry.name.name());
+                out.append(",\"tags\":{");
+                for (int i = 0; i < entry.name.tagCount(); i++) {
+                    if (i > 0) out.append(',');
+                    appendJsonString(out, entry.name.tagKey(i));
+                    out.append(':');
+                    appendJsonString(out, entry.name.tagValue(i));
+                }
+                out.append("},\"kind\":\"").append(entry.kind.key).append("\",\"values\":{");
+                Field[] fields = entry.kind.fields;
+                for (int i = 0; i < fields.length; i++) {
+                    if (i > 0) out.append(',');
+                    out.append('"').append(fields[i].key).append("\":").append(formatJson(entry.values[i]));
+                }
+                out.append("}}");
+            }
+            out.append("]}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Com.buildToString("timestamp", timestamp, "size", entries.size());
+    }
+
+    private static void appendLabels(StringBuilder sb, MetricName name, String quantile) {
+        if (name.tagCount() == 0 && quantile == null) return;
+        sb.append('{');
+        for (int i = 0; i < name.tagCount(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(sanitizeLabel(name.tagKey(i))).append("=\"");
+            String value = name.tagValue(i);
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') sb.append('\\').append(c);
+                else if (c == '\n') sb.append("\\n");
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+        if (quantile != null) {
+            if (name.tagCount() > 0) sb.append(',');
+            sb.append("quantile=\"").append(quantile).append('"');
+        }
+        sb.append('}');
+    }
+
+    private static void appendJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * 将名称转换为Prometheus格式，非法字符替换为下划线，以数字开头时加下划线前缀
+     */
+    static String sanitize(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 1);
+        if (Character.isDigit(name.charAt(0))) sb.append('_');
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(c < 128 && (Character.isLetterOrDigit(c) || c == '_' || c == ':') ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    private static String sanitizeLabel(String key) {
+        return sanitize(key).replace(':', '_');
+    }
+
+    private static String formatPrometheus(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return format(value);
+    }
+
+    private static String formatJson(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : format(value);
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    /**
+     * 指标的种类
+     */
+    public enum Kind {
+        INQUIRE("inquire",
+                new Field("hit", "_hit_total", "counter", "_hit_total", null),
+                new Field("miss", "_miss_total", "counter", "_miss_total", null)),
+        OPERATE("operate",
+                new Field("successCount", "_success_total", "counter", "_success_total", null),
+                new Field("successTime", "_success_time_total", "counter", "_success_time_total", null),
+                new Field("failureCount", "_failure_total", "counter", "_failure_total", null),
+                new Field("failureTime", "_failure_time_total", "counter", "_failure_time_total", null)),
+        METER("meter",
+                new Field("count", "_total", "counter", "_total", null),
+                new Field("m1Rate", "_m1_rate", "gauge", "_m1_rate", null),
+                new Field("m5Rate", "_m5_rate", "gauge", "_m5_rate", null),
+                new Field("m15Rate", "_m15_rate", "gauge", "_m15_rate", null),
+                new Field("meanRate", "_mean_rate", "gauge", "_mean_rate", null)),
+        HISTOGRAM("histogram",
+                new Field("count", "", "summary", "_count", null),
+                new Field("sum", "", "summary", "_sum", null),
+                new Field("min", "_min", "gauge", "_min", null),
+                new Field("max", "_max", "gauge", "_max", null),
+                new Field("p50", "", "summary", "", "0.5"),
+                new Field("p90", "", "summary", "", "0.9"),
+                new Field("p99", "", "summary", "", "0.99"),
+                new Field("p999", "", "summary", "", "0.999")),
+        GAUGE("gauge",
+                new Field("value", "", "gauge", "", null));
+
+        private final String key;
+        private final Field[] fields;
+
+        Kind(String key, Field... fields) {
+            this.key = key;
+            this.fields = fields;
+        }
+
+        /**
+         * 获取值的字段名
+         *
+         * @param index 字段索引
+         * @return 返回字段名
+         */
+        public String field(int index) {
+            return fields[index].key;
+        }
+
+        /**
+         * 获取值的数量
+         *
+         * @return 返回值的数量
+         */
+        public int fieldCount() {
+            return fields.length;
+        }
+    }
+
+    /**
+     * 一个指标的值
+     */
+    public static final class Entry implements Comparable<Entry> {
+        private final MetricName name;
+        private final Kind kind;
+        private final double[] values;
+
+        private Entry(MetricName name, Kind kind, double... values) {
+            this.name = name;
+            this.kind = kind;
+            this.values = values;
+        }
+
+        /**
+         * 获取指标名称
+         *
+         * @return 返回 {@link MetricName}
+         */
+        public MetricName name() {
+            return name;
+        }
+
+        /**
+         * 获取指标种类
+         *
+         * @return 返回 {@link Kind}
+         */
+        public Kind kind() {
+            return kind;
+        }
+
+        /**
+         * 获取字段的值
+         *
+         * @param field 字段名，见 {@link Kind#field(int)}
+         * @return 返回值，字段不存在时返回 {@link Double#NaN}
+         */
+        public double value(String field) {
+            for (int i = 0; i < kind.fields.length; i++) {
+                if (kind.fields[i].key.equals(field)) return values[i];
+            }
+            return Double.NaN;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return name.compareTo(other.name);
+        }
+
+        @Override
+        public String toString() {
+            return Com.buildToString("name", name, "kind", kind);
+        }
+    }
+
+    /**
+     * 值的字段，以及它在Prometheus中的指标族后缀、类型、样本后缀和分位数标签
+     */
+    private static final class Field {
+        private final String key;
+        private final String family;
+        private final String type;
+        private final String sample;
+        private final String quantile;
+
+        private Field(String key, String family, String type, String sample, String quantile) {
+            this.key = key;
+            this.family = family;
+            this.type = type;
+            this.sample = sample;
+            this.quantile = quantile;
+        }
+    }
+}
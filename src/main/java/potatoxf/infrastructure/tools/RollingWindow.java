@@ -0,0 +1,134 @@
+package potatoxf.infrastructure.tools;
+
+import potatoxf.api.support.Arg;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 滑动时间窗口，窗口被均分为环形排列的桶，每个桶有固定数量的累加槽。
+ * 时间来自以纳秒计的 {@link TimeTicker}，桶的轮换无锁，记录时不分配对象。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+final class RollingWindow {
+    /*
+     * A bucket is tagged with the epoch (ticker value / bucket length) it counts. A recorder that
+     * finds a stale bucket at the epoch's index builds a fresh one and installs it with a CAS; the
+     * loser of the race simply uses the winner's bucket, so rotation allocates one bucket per bucket
+     * length and nothing per record. A recorder that stalls for a whole window may add to a bucket
+     * that was already replaced, in which case the value is dropped with that bucket. Readers only
+     * sum the buckets whose epoch lies inside the window, so idle periods read as zero without any
+     * background rotation.
+     */
+
+    private final TimeTicker ticker;
+    private final long bucketNanos;
+    private final int slots;
+    private final long startTime;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * @param ticker      以纳秒计的时间源
+     * @param window      窗口长度
+     * @param unit        窗口长度的单位
+     * @param bucketCount 桶数量
+     * @param slots       每个桶的累加槽数量
+     */
+    RollingWindow(TimeTicker ticker, long window, TimeUnit unit, int bucketCount, int slots) {
+        Objects.requireNonNull(ticker, "The ticker must be not null");
+        Objects.requireNonNull(unit, "The unit must be not null");
+        Arg.check(bucketCount > 0, () -> "The bucket count must greater then 0,but the value is '" + bucketCount + "'");
+        long windowNanos = unit.toNanos(window);
+        Arg.check(windowNanos >= bucketCount, () -> "The window must greater then bucket count nanos,but the value is '" + window + " " + unit + "'");
+        this.ticker = ticker;
+        this.bucketNanos = windowNanos / bucketCount;
+        this.slots = slots;
+        this.startTime = ticker.read();
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * 累加到当前桶
+     *
+     * @param slot  槽
+     * @param value 值
+     */
+    void add(int slot, long value) {
+        current().values[slot].add(value);
+    }
+
+    /**
+     * 累加到当前桶的两个槽
+     *
+     * @param countSlot 次数槽，加1
+     * @param valueSlot 值槽
+     * @param value     值
+     */
+    void add(int countSlot, int valueSlot, long value) {
+        Bucket bucket = current();
+        bucket.values[countSlot].increment();
+        bucket.values[valueSlot].add(value);
+    }
+
+    /**
+     * 获取窗口内所有槽的和
+     *
+     * @return 返回每个槽的和
+     */
+    long[] sum() {
+        long[] sums = new long[slots];
+        long epoch = Math.floorDiv(ticker.read(), bucketNanos);
+        int length = buckets.length();
+        for (int i = 0; i < length; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch <= epoch && bucket.epoch > epoch - length) {
+                for (int j = 0; j < slots; j++) {
+                    sums[j] += bucket.values[j].sum();
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * 获取窗口实际覆盖的时间，创建后不足一个窗口时为已经过的时间，当前桶只计算已经过的部分
+     *
+     * @return 返回纳秒
+     */
+    long spanNanos() {
+        long now = ticker.read();
+        long full = (buckets.length() - 1) * bucketNanos + Math.floorMod(now, bucketNanos);
+        return Math.max(1, Math.min(now - startTime, full));
+    }
+
+    private Bucket current() {
+        long epoch = Math.floorDiv(ticker.read(), bucketNanos);
+        int index = (int) Math.floorMod(epoch, (long) buckets.length());
+        Bucket bucket = buckets.get(index);
+        while (bucket == null || bucket.epoch < epoch) {
+            Bucket next = new Bucket(epoch, slots);
+            if (buckets.compareAndSet(index, bucket, next)) return next;
+            bucket = buckets.get(index);
+        }
+        //落后的线程写入较新的桶，计入当前窗口
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder[] values;
+
+        private Bucket(long epoch, int slots) {
+            this.epoch = epoch;
+            this.values = new LongAdder[slots];
+            for (int i = 0; i < slots; i++) {
+                values[i] = new LongAdder();
+            }
+        }
+    }
+}
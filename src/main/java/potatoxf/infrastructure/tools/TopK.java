@@ -0,0 +1,249 @@
+package potatoxf.infrastructure.tools;
+
+import lombok.Getter;
+import potatoxf.api.support.Arg;
+import potatoxf.api.support.Com;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 热点元素追踪器，记录出现次数最多的前K个元素及其估计次数，估计次数随频次估计器的老化一起减半。
+ * 请注意，此对象不是为线程安全而设计的，因此不会使用同步。
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public final class TopK<E> {
+    /*
+     * The tracker is a Space-Saving summary [1] kept in a min-heap of K counters, with an index
+     * from element to heap slot. A tracked element increments its own counter and sifts down,
+     * O(log K). An untracked element may take over the minimum counter, inheriting its count as
+     * the error bound, but only if its FrequencyEstimator estimate is greater than the estimate of the
+     * element it replaces. This admission filter keeps the long tail of one-hit elements from
+     * churning the heap, which plain Space-Saving suffers from on skewed streams.
+     *
+     * The estimator halves its counters on every aging pass, so the heap does the same: whenever the
+     * aging count of the estimator has moved since the last offer, every count and error in the heap
+     * is shifted right once per pass. Halving is monotone, so the heap order stays valid without a
+     * rebuild, and a formerly hot element decays like its estimate does instead of holding its slot
+     * forever against elements that are hot now.
+     *
+     * [1] Efficient Computation of Frequent and Top-k Elements in Data Streams
+     * https://www.cs.ucsb.edu/sites/default/files/documents/2005-23.pdf
+     */
+
+    private final int capacity;
+    private final FrequencyEstimator sketch;
+    private final HashMap<E, Counter<E>> index;
+    private final Counter<E>[] heap;
+    private int size;
+    private long agingCount;
+
+    /**
+     * @param k            追踪的元素数量
+     * @param expectedSize 预计不同元素的数量，用于初始化频次估计器
+     */
+    public TopK(int k, long expectedSize) {
+        this(k, FrequencyEstimator.of());
+        sketch.ensureCapacity(expectedSize);
+    }
+
+    /**
+     * @param k      追踪的元素数量
+     * @param sketch 频次估计器，由追踪器负责增加频次
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public TopK(int k, FrequencyEstimator sketch) {
+        Arg.check(k > 0, () -> "The k must greater then 0,but the value is '" + k + "'");
+        this.capacity = k;
+        this.sketch = Objects.requireNonNull(sketch, "The sketch must be not null");
+        this.index = new HashMap<>(Math.max(16, (int) (k / 0.75f) + 1));
+        this.heap = (Counter<E>[]) new Counter[k];
+        this.agingCount = sketch.getAgingCount();
+    }
+
+    /**
+     * 记录元素出现一次
+     *
+     * @param element 元素
+     */
+    public void offer(E element) {
+        Objects.requireNonNull(element, "The element must be not null");
+        sketch.increment(element);
+        decay();
+        Counter<E> counter = index.get(element);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.slot);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(element, 1, 0);
+            counter.slot = size;
+            heap[size++] = counter;
+            index.put(element, counter);
+            siftUp(counter.slot);
+            return;
+        }
+        Counter<E> minimum = heap[0];
+        if (sketch.frequency(element) <= sketch.frequency(minimum.element)) return;
+        index.remove(minimum.element);
+        minimum.element = element;
+        minimum.error = minimum.count;
+        minimum.count++;
+        index.put(element, minimum);
+        siftDown(0);
+    }
+
+    /**
+     * 获取元素的估计次数
+     *
+     * @param element 元素
+     * @return 如果元素被追踪返回估计次数，否则返回0
+     */
+    public long count(E element) {
+        Counter<E> counter = index.get(element);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * 获取当前前K个元素，按估计次数降序排列
+     *
+     * @return 返回前K个元素
+     */
+    public List<Entry<E>> top() {
+        return top(capacity);
+    }
+
+    /**
+     * 获取当前前N个元素，按估计次数降序排列
+     *
+     * @param n 数量
+     * @return 返回前N个元素
+     */
+    public List<Entry<E>> top(int n) {
+        if (size == 0 || n <= 0) return Collections.emptyList();
+        Counter<E>[] counters = Arrays.copyOf(heap, size);
+        Arrays.sort(counters, (a, b) -> Long.compare(b.count, a.count));
+        int length = Math.min(n, counters.length);
+        List<Entry<E>> result = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            result.add(new Entry<>(counters[i].element, counters[i].count, counters[i].error));
+        }
+        return result;
+    }
+
+    /**
+     * 获取追踪的元素数量
+     *
+     * @return 返回追踪的元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清除所有追踪的元素，频次估计器不会被清除
+     */
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        index.clear();
+        size = 0;
+    }
+
+    /**
+     * 频次估计器老化后，将所有追踪元素的次数按相同的轮数减半
+     */
+    private void decay() {
+        long current = sketch.getAgingCount();
+        if (current == agingCount) return;
+        int shift = (int) Math.min(current - agingCount, 63);
+        agingCount = current;
+        for (int i = 0; i < size; i++) {
+            heap[i].count >>>= shift;
+            heap[i].error >>>= shift;
+        }
+    }
+
+    private void siftUp(int slot) {
+        Counter<E> counter = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            Counter<E> p = heap[parent];
+            if (p.count <= counter.count) break;
+            place(p, slot);
+            slot = parent;
+        }
+        place(counter, slot);
+    }
+
+    private void siftDown(int slot) {
+        Counter<E> counter = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = (slot << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].count < heap[child].count) {
+                child = right;
+            }
+            if (counter.count <= heap[child].count) break;
+            place(heap[child], slot);
+            slot = child;
+        }
+        place(counter, slot);
+    }
+
+    private void place(Counter<E> counter, int slot) {
+        heap[slot] = counter;
+        counter.slot = slot;
+    }
+
+    private static final class Counter<E> {
+        private E element;
+        private long count;
+        private long error;
+        private int slot;
+
+        private Counter(E element, long count, long error) {
+            this.element = element;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 热点元素及其估计次数，{@code count - error} 为元素被追踪之后确切记录的次数
+     */
+    @Getter
+    public static final class Entry<E> {
+        /**
+         * 元素
+         */
+        private final E element;
+        /**
+         * 估计次数
+         */
+        private final long count;
+        /**
+         * 接管计数器时继承的次数，即估计次数中不确定的部分
+         */
+        private final long error;
+
+        Entry(E element, long count, long error) {
+            this.element = element;
+            this.count = count;
+            this.error = error;
+        }
+
+        @Override
+        public String toString() {
+            return Com.buildToString("element", element, "count", count, "error", error);
+        }
+    }
+}
@@ -8,6 +8,15 @@ package potatoxf.infrastructure.value;
  * @author potatoxf
  */
 public interface BinaryVal extends AnyTypeVal<byte[]>, Value {
+    /**
+     * 默认构造该接口
+     *
+     * @param value 输入值
+     * @return 返回该接口
+     */
+    static BinaryVal of(byte[] value) {
+        return new BinaryValImpl(value);
+    }
 
     /**
      * 当前值的类型
@@ -0,0 +1,44 @@
+package potatoxf.infrastructure.value;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class BinaryValImpl extends AnyTypeValImpl<byte[]> implements BinaryVal {
+    protected BinaryValImpl(byte[] value) {
+        super(value);
+    }
+
+    @Override
+    public byte[] asByteArray() {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() {
+        return value == null ? null : ByteBuffer.wrap(value).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return value == null ? null : Arrays.toString(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BinaryValImpl i = (BinaryValImpl) o;
+        return Arrays.equals(value, i.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(value);
+    }
+}
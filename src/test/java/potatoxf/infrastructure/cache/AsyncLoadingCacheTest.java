@@ -0,0 +1,116 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Test;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.CounterForOperate;
+import potatoxf.infrastructure.tools.InterveningSequence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class AsyncLoadingCacheTest {
+
+    @Test
+    public void testConcurrentGetsShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AsyncLoadingCache<String, Integer> cache = new AsyncLoadingCache<>(new BoundedCache<>(100), key -> {
+                loads.incrementAndGet();
+                release.await();
+                return key.length();
+            }, executor);
+            CompletableFuture<Integer> first = cache.get("abc");
+            CompletableFuture<Integer> second = cache.get("abc");
+            assertSame(first, second);
+            assertFalse(first.isDone());
+            release.countDown();
+            assertEquals(Integer.valueOf(3), first.get(10, TimeUnit.SECONDS));
+            assertEquals(Integer.valueOf(3), cache.get("abc").get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedLoadIsRetried() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AsyncLoadingCache<String, Integer> cache = new AsyncLoadingCache<>(new BoundedCache<>(100), key -> {
+            if (loads.incrementAndGet() == 1) throw new IllegalStateException("first load fails");
+            return 1;
+        }, Runnable::run);
+        assertTrue(cache.get("key").isCompletedExceptionally());
+        assertEquals(Integer.valueOf(1), cache.get("key").get(10, TimeUnit.SECONDS));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testRefreshAfterWrite() throws Exception {
+        AtomicLong time = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        AsyncLoadingCache<String, Integer> cache = new AsyncLoadingCache<>(new BoundedCache<>(100), key -> loads.incrementAndGet(),
+                Runnable::run, time::get, CounterForInquire.of(), CounterForOperate.of(), 100, InterveningSequence.exponential());
+        assertEquals(Integer.valueOf(1), cache.get("key").get());
+        time.set(50);
+        assertEquals(Integer.valueOf(1), cache.get("key").get());
+        assertEquals(1, loads.get());
+        //超过刷新时间的读取返回当前值，并在后台重新加载
+        time.set(150);
+        assertEquals(Integer.valueOf(1), cache.get("key").get());
+        assertEquals(Integer.valueOf(2), cache.get("key").get());
+        assertEquals(2, loads.get());
+        time.set(200);
+        assertEquals(Integer.valueOf(2), cache.get("key").get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testGetAllLoadsMissingKeysOnce() throws Exception {
+        AtomicInteger batches = new AtomicInteger();
+        CacheLoader<Integer, Integer> loader = new CacheLoader<Integer, Integer>() {
+            @Override
+            public Integer load(Integer key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Map<Integer, Integer> loadAll(Set<? extends Integer> keys) {
+                batches.incrementAndGet();
+                Map<Integer, Integer> result = new HashMap<>();
+                for (Integer key : keys) {
+                    result.put(key, key * 10);
+                }
+                return result;
+            }
+        };
+        AsyncLoadingCache<Integer, Integer> cache = new AsyncLoadingCache<>(new BoundedCache<>(100), loader, Runnable::run);
+        cache.put(1, 100);
+        Map<Integer, Integer> result = cache.getAll(Arrays.asList(1, 2, 3)).get(10, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(100), result.get(1));
+        assertEquals(Integer.valueOf(20), result.get(2));
+        assertEquals(Integer.valueOf(30), result.get(3));
+        assertEquals(1, batches.get());
+    }
+}
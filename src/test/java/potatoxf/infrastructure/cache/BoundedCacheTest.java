@@ -0,0 +1,84 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Test;
+import potatoxf.infrastructure.tools.CounterForInquire;
+import potatoxf.infrastructure.tools.FrequencyEstimator;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void testEvictionKeepsMaximum() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.weightedSize() <= cache.maximum());
+        }
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testAdmissionKeepsHotKeysAgainstScan() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, i);
+                }
+            }
+        }
+        for (int i = 1000; i < 100000; i++) {
+            cache.put(i, i);
+        }
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) hot++;
+        }
+        assertTrue("Only " + hot + " of 50 hot keys survived the scan", hot >= 45);
+    }
+
+    @Test
+    public void testEvictionListenerFailureDoesNotStopEviction() {
+        AtomicInteger evicted = new AtomicInteger();
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(10, WeigherForTwain.singleton(), CounterForInquire.of(),
+                FrequencyEstimator.of(), null, System::nanoTime, (key, value, weight) -> {
+            evicted.incrementAndGet();
+            throw new IllegalStateException("listener failure");
+        });
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(10, cache.size());
+        assertEquals(90, evicted.get());
+    }
+
+    @Test
+    public void testExpiry() {
+        AtomicLong time = new AtomicLong();
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, WeigherForTwain.singleton(), CounterForInquire.of(),
+                FrequencyEstimator.of(), ExpiryPolicy.afterWrite(10, TimeUnit.SECONDS), time::get);
+        cache.put(1, 1);
+        time.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        cache.put(2, 2);
+        assertEquals(Integer.valueOf(1), cache.get(1));
+        time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertNull(cache.get(1));
+        assertEquals(Integer.valueOf(2), cache.get(2));
+        time.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertNull(cache.get(2));
+    }
+}
@@ -0,0 +1,81 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import potatoxf.infrastructure.value.BinaryVal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class CacheSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private final CacheSnapshot<Integer, String> snapshot = new CacheSnapshot<>(
+            key -> BinaryVal.of(ByteBuffer.allocate(4).putInt(key).array()),
+            binary -> ByteBuffer.wrap(binary.getValue()).getInt(),
+            value -> BinaryVal.of(value.getBytes(StandardCharsets.UTF_8)),
+            binary -> new String(binary.getValue(), StandardCharsets.UTF_8));
+
+    @Test
+    public void testDumpAndLoadRoundTrip() throws IOException {
+        BoundedCache<Integer, String> cache = populated();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(100, snapshot.dump(cache, 1000, out));
+        BoundedCache<Integer, String> restored = new BoundedCache<>(1000);
+        assertEquals(100, snapshot.load(restored, new ByteArrayInputStream(out.toByteArray()), Runnable::run, 2));
+        assertEquals(100, restored.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, restored.get(i));
+        }
+    }
+
+    @Test
+    public void testDumpKeepsMostFrequentEntries() throws IOException {
+        BoundedCache<Integer, String> cache = populated();
+        File file = new File(folder.getRoot(), "cache.snapshot");
+        assertEquals(10, snapshot.dump(cache, 10, file));
+        BoundedCache<Integer, String> restored = new BoundedCache<>(1000);
+        assertEquals(10, snapshot.load(restored, file));
+        //只有被频繁读取的前10个键写入快照
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value" + i, restored.get(i));
+        }
+        assertEquals(10, restored.size());
+    }
+
+    @Test
+    public void testLoadMissingFile() throws IOException {
+        assertEquals(0, snapshot.load(new BoundedCache<>(10), new File(folder.getRoot(), "missing")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadRejectsForeignData() throws IOException {
+        snapshot.load(new BoundedCache<>(10), new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}), Runnable::run, 1);
+    }
+
+    private static BoundedCache<Integer, String> populated() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1000);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "value" + i);
+        }
+        for (int round = 0; round < 8; round++) {
+            for (int i = 0; i < 10; i++) {
+                cache.get(i);
+            }
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,123 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class MemoryBudgetTest {
+
+    @Test
+    public void testEnforceShrinksCachesWithinBudget() {
+        MemoryBudget budget = new MemoryBudget(1500);
+        BoundedCache<Integer, Integer> first = filled(100);
+        BoundedCache<Integer, Integer> second = filled(100);
+        budget.register("first", first, 10);
+        budget.register("second", second, 10);
+        assertEquals(2000, budget.weightedSize());
+        budget.enforce();
+        assertTrue(budget.weightedSize() <= 1500);
+        assertTrue(first.maximum() < 100 || second.maximum() < 100);
+    }
+
+    @Test
+    public void testRelieveReleasesAccounts() {
+        MemoryBudget budget = new MemoryBudget(1 << 20);
+        AtomicLong released = new AtomicLong();
+        MemoryBudget.Account<byte[]> account = budget.account("buffers", bytes -> bytes.length, released::addAndGet);
+        for (int i = 0; i < 10; i++) {
+            account.add(new byte[100]);
+        }
+        assertEquals(1000, budget.weightedSize());
+        budget.relieve();
+        //释放10%的权重
+        assertEquals(100, released.get());
+    }
+
+    @Test
+    public void testRebalanceMovesCapacityToHigherMarginalHitRate() {
+        MemoryBudget budget = new MemoryBudget(1000);
+        //flat的命中率与容量无关，growing的命中率随容量增长
+        FakeParticipant flat = new FakeParticipant(500, capacity -> 0.5d);
+        FakeParticipant growing = new FakeParticipant(500, capacity -> capacity / 1000d);
+        budget.register("flat", flat);
+        budget.register("growing", growing);
+        for (int i = 0; i < 20; i++) {
+            flat.serve(1000);
+            growing.serve(1000);
+            budget.rebalance();
+            assertEquals(1000, flat.capacity + growing.capacity);
+        }
+        assertTrue("flat " + flat.capacity + " growing " + growing.capacity, growing.capacity > 800);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateNameIsRejected() {
+        MemoryBudget budget = new MemoryBudget(1000);
+        budget.register("cache", filled(10), 1);
+        budget.register("cache", filled(10), 1);
+    }
+
+    private static BoundedCache<Integer, Integer> filled(long maximum) {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(maximum);
+        for (int i = 0; i < maximum; i++) {
+            cache.put(i, i);
+        }
+        return cache;
+    }
+
+    private interface HitRate {
+        double of(long capacity);
+    }
+
+    private static final class FakeParticipant implements MemoryBudget.Participant {
+        private final HitRate hitRate;
+        private long capacity;
+        private long hitCount;
+        private long missCount;
+
+        private FakeParticipant(long capacity, HitRate hitRate) {
+            this.capacity = capacity;
+            this.hitRate = hitRate;
+        }
+
+        private void serve(int requests) {
+            long hits = Math.round(requests * hitRate.of(capacity));
+            hitCount += hits;
+            missCount += requests - hits;
+        }
+
+        @Override
+        public long weightedSize() {
+            return capacity;
+        }
+
+        @Override
+        public long capacity() {
+            return capacity;
+        }
+
+        @Override
+        public void resize(long capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public long hitCount() {
+            return hitCount;
+        }
+
+        @Override
+        public long missCount() {
+            return missCount;
+        }
+    }
+}
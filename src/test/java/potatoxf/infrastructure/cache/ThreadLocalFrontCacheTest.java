@@ -0,0 +1,86 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class ThreadLocalFrontCacheTest {
+    private final AtomicLong time = new AtomicLong();
+    private final BoundedCache<String, Integer> delegate = new BoundedCache<>(100);
+    private final ThreadLocalFrontCache<String, Integer> cache = new ThreadLocalFrontCache<>(delegate, 64, 1, TimeUnit.SECONDS, time::get);
+
+    @Test
+    public void testPutAfterDelegateEvictionInvalidates() {
+        delegate.put("key", 1);
+        warm("key");
+        //模拟被代理缓存自行淘汰，前置缓存在最大存活时间内仍返回旧值
+        delegate.remove("key");
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        assertNull(cache.put("key", 2));
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+    }
+
+    @Test
+    public void testPutIfAbsentAfterDelegateEvictionInvalidates() {
+        delegate.put("key", 1);
+        warm("key");
+        delegate.remove("key");
+        assertNull(cache.putIfAbsent("key", 2));
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+        assertEquals(Integer.valueOf(2), cache.putIfAbsent("key", 3));
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+    }
+
+    @Test
+    public void testWritesThroughWrapperInvalidate() {
+        cache.put("key", 1);
+        warm("key");
+        assertEquals(Integer.valueOf(1), cache.put("key", 2));
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+        warm("key");
+        cache.replace("key", 2, 3);
+        assertEquals(Integer.valueOf(3), cache.get("key"));
+        warm("key");
+        cache.remove("key");
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testDirectWriteNeedsInvalidate() {
+        delegate.put("key", 1);
+        warm("key");
+        delegate.put("key", 2);
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        cache.invalidate("key");
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+    }
+
+    @Test
+    public void testMaximumAgeBoundsStaleReads() {
+        delegate.put("key", 1);
+        warm("key");
+        delegate.put("key", 2);
+        assertEquals(Integer.valueOf(1), cache.get("key"));
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(Integer.valueOf(2), cache.get("key"));
+    }
+
+    /**
+     * 读取多次使键达到准入频次并进入前置数组
+     */
+    private void warm(String key) {
+        for (int i = 0; i < 3; i++) {
+            cache.get(key);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import potatoxf.infrastructure.tools.WeigherForTwain;
+import potatoxf.infrastructure.value.BinaryVal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class TieredCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpillAndPromote() throws IOException {
+        try (TieredCache<Integer, String> cache = create(3)) {
+            for (int i = 0; i < 10; i++) {
+                cache.put(i, "value" + i);
+            }
+            //堆内只保留3个条目，其余溢出到文件
+            assertEquals(3, cache.heapSize());
+            assertEquals(7, cache.fileSize());
+            assertEquals(10, cache.size());
+            assertTrue(cache.fileBytes() > 0);
+            for (int i = 0; i < 10; i++) {
+                assertEquals("value" + i, cache.get(i));
+            }
+            assertTrue(cache.fileHitCount() >= 7);
+            assertEquals(3, cache.heapSize());
+            assertEquals(10, cache.size());
+            assertNull(cache.get(100));
+        }
+    }
+
+    @Test
+    public void testWritesReachSpilledEntries() throws IOException {
+        try (TieredCache<Integer, String> cache = create(1)) {
+            cache.put(1, "a");
+            cache.put(2, "b");
+            cache.put(3, "c");
+            //覆盖、替换和移除文件中的条目时返回文件中的旧值
+            assertEquals("a", cache.put(1, "a2"));
+            assertEquals("a2", cache.get(1));
+            assertTrue(cache.replace(2, "b", "b2"));
+            assertEquals("b2", cache.get(2));
+            assertEquals("c", cache.remove(3));
+            assertNull(cache.get(3));
+            assertEquals("a2", cache.putIfAbsent(1, "a3"));
+            assertEquals(2, cache.size());
+            cache.clear();
+            assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void testBinaryValues() throws IOException {
+        try (TieredCache<String, BinaryVal> cache = TieredCache.binary(8, folder.newFolder())) {
+            cache.put("a", BinaryVal.of(new byte[]{1, 2, 3, 4, 5, 6}));
+            cache.put("b", BinaryVal.of(new byte[]{7, 8, 9, 10, 11, 12}));
+            assertEquals(1, cache.heapSize());
+            assertEquals(1, cache.fileSize());
+            assertEquals(BinaryVal.of(new byte[]{1, 2, 3, 4, 5, 6}), cache.get("a"));
+            assertEquals(BinaryVal.of(new byte[]{7, 8, 9, 10, 11, 12}), cache.get("b"));
+        }
+    }
+
+    private TieredCache<Integer, String> create(long maximum) throws IOException {
+        return new TieredCache<>(maximum, WeigherForTwain.singleton(), folder.newFolder(), 1 << 20,
+                value -> BinaryVal.of(value.getBytes(StandardCharsets.UTF_8)),
+                binary -> new String(binary.getValue(), StandardCharsets.UTF_8));
+    }
+}
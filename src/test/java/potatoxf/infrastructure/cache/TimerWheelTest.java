@@ -0,0 +1,99 @@
+package potatoxf.infrastructure.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class TimerWheelTest {
+
+    @Test
+    public void testExpiresOnlyDueTimers() {
+        TimerWheel<Entry> wheel = new TimerWheel<>(() -> 0L);
+        Entry second = new Entry(1);
+        Entry minute = new Entry(2);
+        Entry hour = new Entry(3);
+        wheel.schedule(second, TimeUnit.SECONDS.toNanos(2));
+        wheel.schedule(minute, TimeUnit.MINUTES.toNanos(2));
+        wheel.schedule(hour, TimeUnit.HOURS.toNanos(2));
+
+        List<Integer> expired = new ArrayList<>();
+        wheel.advance(TimeUnit.SECONDS.toNanos(1), entry -> expired.add(entry.id));
+        assertEquals(Collections.emptyList(), expired);
+
+        wheel.advance(TimeUnit.SECONDS.toNanos(5), entry -> expired.add(entry.id));
+        assertEquals(Collections.singletonList(1), expired);
+        assertFalse(second.isScheduled());
+
+        //跨层级推进时，未到期的定时器被降级到更细的层级而不是提前到期
+        wheel.advance(TimeUnit.MINUTES.toNanos(1), entry -> expired.add(entry.id));
+        assertEquals(Collections.singletonList(1), expired);
+        assertTrue(minute.isScheduled());
+
+        wheel.advance(TimeUnit.MINUTES.toNanos(3), entry -> expired.add(entry.id));
+        assertEquals(Arrays.asList(1, 2), expired);
+
+        wheel.advance(TimeUnit.HOURS.toNanos(3), entry -> expired.add(entry.id));
+        assertEquals(Arrays.asList(1, 2, 3), expired);
+    }
+
+    @Test
+    public void testRescheduleAndCancel() {
+        TimerWheel<Entry> wheel = new TimerWheel<>(() -> 0L);
+        Entry moved = new Entry(1);
+        Entry cancelled = new Entry(2);
+        wheel.schedule(moved, TimeUnit.SECONDS.toNanos(2));
+        wheel.schedule(cancelled, TimeUnit.SECONDS.toNanos(2));
+        wheel.reschedule(moved, TimeUnit.SECONDS.toNanos(30));
+        wheel.cancel(cancelled);
+        assertFalse(cancelled.isScheduled());
+
+        List<Integer> expired = new ArrayList<>();
+        wheel.advance(TimeUnit.SECONDS.toNanos(10), entry -> expired.add(entry.id));
+        assertEquals(Collections.emptyList(), expired);
+        wheel.advance(TimeUnit.SECONDS.toNanos(40), entry -> expired.add(entry.id));
+        assertEquals(Collections.singletonList(1), expired);
+    }
+
+    @Test
+    public void testExpiresManyTimers() {
+        TimerWheel<Entry> wheel = new TimerWheel<>(() -> 0L);
+        Entry[] entries = new Entry[1000];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(i);
+            wheel.schedule(entries[i], TimeUnit.MILLISECONDS.toNanos(i * 100L));
+        }
+        int[] count = new int[1];
+        long now = TimeUnit.SECONDS.toNanos(50);
+        wheel.advance(now, entry -> {
+            assertTrue(entry.getExpirationTime() <= now);
+            count[0]++;
+        });
+        for (Entry entry : entries) {
+            assertEquals(entry.getExpirationTime() > now, entry.isScheduled());
+        }
+        wheel.advance(TimeUnit.SECONDS.toNanos(200), entry -> count[0]++);
+        assertEquals(entries.length, count[0]);
+    }
+
+    private static final class Entry extends TimerWheel.Timer {
+        private final int id;
+
+        private Entry(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package potatoxf.infrastructure.cache.simulator;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class SimulatorTest {
+
+    @Test
+    public void testRepeatedKeysAlwaysHit() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                sb.append(i).append('\n');
+            }
+        }
+        Simulator simulator = new Simulator(Trace.importText(new StringReader(sb.toString())));
+        for (Simulator.Report report : simulator.run(Arrays.asList(Policy.lru(100), Policy.lfu(100), Policy.tinyLfu(100), Policy.arc(100)))) {
+            assertEquals(report.getPolicyName(), 500, report.getRequestCount());
+            assertEquals(report.getPolicyName(), 450, report.getHitCount());
+        }
+    }
+
+    @Test
+    public void testFrequencyPoliciesResistScans() throws IOException {
+        //热点键与只出现一次的扫描键交替出现，按最近使用淘汰会被扫描冲掉热点
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        long scan = 1_000_000;
+        for (int i = 0; i < 100_000; i++) {
+            if (random.nextBoolean()) {
+                sb.append(random.nextInt(100)).append('\n');
+            } else {
+                sb.append(scan++).append('\n');
+            }
+        }
+        Simulator simulator = new Simulator(Trace.importText(new StringReader(sb.toString())));
+        List<Simulator.Report> reports = simulator.run(Arrays.asList(Policy.lru(100), Policy.tinyLfu(100), Policy.arc(100)));
+        double lru = reports.get(0).hitRate();
+        double tinyLfu = reports.get(1).hitRate();
+        double arc = reports.get(2).hitRate();
+        assertTrue("lru " + lru + " tinyLfu " + tinyLfu, tinyLfu > lru + 0.1);
+        assertTrue("lru " + lru + " arc " + arc, arc > lru);
+        assertTrue(tinyLfu <= 0.5);
+    }
+}
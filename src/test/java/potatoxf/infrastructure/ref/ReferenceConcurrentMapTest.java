@@ -0,0 +1,110 @@
+package potatoxf.infrastructure.ref;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class ReferenceConcurrentMapTest {
+
+    @Test
+    public void testWeakKeysCompareByIdentity() {
+        ReferenceConcurrentMap<String, Integer> map = ReferenceConcurrentMap.weakKeys();
+        String key = new String("key");
+        String equal = new String("key");
+        map.put(key, 1);
+        assertEquals(Integer.valueOf(1), map.get(key));
+        //相等但不是同一个对象的键不共享条目
+        assertNull(map.get(equal));
+        map.put(equal, 2);
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(1), map.get(key));
+        assertEquals(Integer.valueOf(2), map.get(equal));
+    }
+
+    @Test
+    public void testStrongKeysCompareByEquals() {
+        ReferenceConcurrentMap<String, Integer> map = ReferenceConcurrentMap.weakValues();
+        Integer value = 1000;
+        map.put(new String("key"), value);
+        assertEquals(value, map.get("key"));
+    }
+
+    @Test
+    public void testPutIfAbsentAndReplace() {
+        ReferenceConcurrentMap<String, Integer> map = new ReferenceConcurrentMap<>(ReferenceType.SOFT, ReferenceType.SOFT);
+        String key = "key";
+        assertNull(map.putIfAbsent(key, 1));
+        assertEquals(Integer.valueOf(1), map.putIfAbsent(key, 2));
+        assertEquals(Integer.valueOf(1), map.get(key));
+        assertEquals(Integer.valueOf(1), map.replace(key, 3));
+        assertTrue(map.replace(key, 3, 4));
+        assertFalse(map.replace(key, 3, 5));
+        assertEquals(Integer.valueOf(4), map.put(key, 6));
+        assertEquals(1, map.size());
+        assertFalse(map.remove(key, 4));
+        assertTrue(map.remove(key, 6));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEntrySetAndClear() {
+        ReferenceConcurrentMap<String, Integer> map = ReferenceConcurrentMap.weakKeys();
+        String[] keys = {"a", "b", "c"};
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            sum += entry.getValue();
+        }
+        assertEquals(3, sum);
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testCollectedKeysAreCleanedUp() throws InterruptedException {
+        ReferenceConcurrentMap<Object, Integer> map = ReferenceConcurrentMap.weakKeys();
+        Object alive = new Object();
+        map.put(alive, 0);
+        for (int i = 0; i < 100; i++) {
+            map.put(new Object(), i);
+        }
+        //回收由垃圾收集器决定，尽量触发但不保证
+        for (int i = 0; i < 20 && map.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+            map.cleanUp();
+        }
+        assertEquals(Integer.valueOf(0), map.get(alive));
+        if (map.size() == 1) {
+            assertEquals(alive, map.keySet().iterator().next());
+        }
+    }
+
+    @Test
+    public void testIdentityReferencesCompareByIdentity() {
+        String key = new String("key");
+        WeakIdentityReference<String> weak = new WeakIdentityReference<>(key);
+        assertTrue(weak.equals(LookupReference.identity(key)));
+        assertTrue(LookupReference.identity(key).equals(weak));
+        assertFalse(weak.equals(LookupReference.identity(new String("key"))));
+        assertEquals(System.identityHashCode(key), weak.hashCode());
+        weak.clear();
+        assertTrue(weak.equals(weak));
+        assertFalse(weak.equals(new WeakIdentityReference<>(null)));
+        //普通的查找仍按equals比较
+        assertTrue(new LookupReference<>(key).equals(new StrongEqualsReference<>(new String("key"))));
+    }
+}
@@ -0,0 +1,71 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class CounterForOperateForStripedTest {
+
+    @Test
+    public void testSuccessCountsOncePerRecord() {
+        check(CounterForOperate.striped());
+        check(CounterForOperate.of());
+    }
+
+    @Test
+    public void testConcurrentRecordsAreNotLost() throws InterruptedException {
+        CounterForOperate counter = CounterForOperate.striped();
+        int threads = 8;
+        int records = 100_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < records; i++) {
+                    counter.recordSuccess(2);
+                    if ((i & 3) == 0) {
+                        counter.recordFailure(3);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals((long) threads * records, counter.successCount());
+        assertEquals(2L * threads * records, counter.successTimeCount());
+        assertEquals((long) threads * records / 4, counter.failureCount());
+        assertEquals(3L * threads * records / 4, counter.failureTimeCount());
+    }
+
+    private static void check(CounterForOperate counter) {
+        counter.recordSuccess(100);
+        counter.recordSuccess(50);
+        counter.recordFailure(7);
+        //成功次数按次数增加，而不是按时间增加
+        assertEquals(2, counter.successCount());
+        assertEquals(150, counter.successTimeCount());
+        assertEquals(1, counter.failureCount());
+        assertEquals(7, counter.failureTimeCount());
+        assertEquals(3, counter.totalCount());
+        assertEquals(157, counter.totalTimeCount());
+    }
+}
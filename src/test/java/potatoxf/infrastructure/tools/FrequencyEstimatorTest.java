@@ -0,0 +1,43 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class FrequencyEstimatorTest {
+
+    @Test
+    public void testPrimitiveAndHashEntryPointsShareCounters() {
+        check(FrequencyEstimator.of());
+        check(FrequencyEstimator.concurrent());
+        check(FrequencyEstimator.block());
+    }
+
+    @Test
+    public void testUninitializedEstimatorIgnoresIncrements() {
+        FrequencyEstimator estimator = FrequencyEstimator.of();
+        estimator.increment(1L);
+        estimator.incrementHash(1);
+        assertEquals(0, estimator.frequency(1L));
+        assertEquals(0, estimator.frequencyHash(1));
+    }
+
+    private static void check(FrequencyEstimator estimator) {
+        estimator.ensureCapacity(1024);
+        long key = 1L << 40 | 7;
+        //long键、装箱键与预先哈希的键应该落在同一组counter上
+        estimator.increment(key);
+        estimator.increment(Long.valueOf(key));
+        estimator.incrementHash(Long.hashCode(key));
+        assertEquals(3, estimator.frequency(key));
+        assertEquals(3, estimator.frequency(Long.valueOf(key)));
+        assertEquals(3, estimator.frequencyHash(Long.hashCode(key)));
+        assertEquals(0, estimator.frequency(key + 1));
+    }
+}
@@ -0,0 +1,49 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class FrequencySketchForBlockTest {
+
+    @Test
+    public void testSampleSizeFollowsTableLength() {
+        FrequencySketchForBlock sketch = new FrequencySketchForBlock();
+        //表长度至少为一个块的长度8
+        sketch.ensureCapacity(3);
+        assertEquals(80, sketch.getSampleSize());
+        sketch.ensureCapacity(100);
+        assertEquals(1280, sketch.getSampleSize());
+    }
+
+    @Test
+    public void testIncrementSaturates() {
+        FrequencySketchForBlock sketch = new FrequencySketchForBlock();
+        sketch.ensureCapacity(512);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+    }
+
+    @Test
+    public void testAgingBySampleSize() {
+        FrequencySketchForBlock sketch = new FrequencySketchForBlock();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+        for (int i = 0; i < 640; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") < 15);
+    }
+}
@@ -0,0 +1,86 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class FrequencySketchForConcurrentTest {
+
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws InterruptedException {
+        FrequencySketchForConcurrent sketch = new FrequencySketchForConcurrent();
+        sketch.ensureCapacity(1 << 16);
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                //共享的键每个线程增加3次，各自的键按编号增加
+                for (int i = 0; i < 3; i++) {
+                    sketch.increment("shared");
+                }
+                for (int key = 0; key < 1000; key++) {
+                    for (int i = 0; i < key % 4; i++) {
+                        sketch.increment(offset * 1000 + key);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(12, sketch.frequency("shared"));
+        int underestimated = 0;
+        for (int t = 0; t < threads; t++) {
+            for (int key = 0; key < 1000; key++) {
+                if (sketch.frequency(t * 1000 + key) < key % 4) underestimated++;
+            }
+        }
+        assertEquals(0, underestimated);
+    }
+
+    @Test
+    public void testSingleSlotTableDoesNotAgeOnEveryIncrement() {
+        FrequencySketchForConcurrent sketch = new FrequencySketchForConcurrent();
+        sketch.ensureCapacity(1);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(5, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testAgingHalvesCounters() {
+        FrequencySketchForConcurrent sketch = new FrequencySketchForConcurrent();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+        //采样大小为640，阈值按采样比较，多增加一些以确保老化开始并完成
+        for (int i = 0; i < 4000; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") < 15);
+    }
+}
@@ -0,0 +1,95 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class FrequencySketchForOffHeapTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDirectMemory() {
+        FrequencySketchForOffHeap sketch = new FrequencySketchForOffHeap();
+        sketch.ensureCapacity(512);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("cold");
+        assertEquals(15, sketch.frequency("hot"));
+        assertEquals(1, sketch.frequency("cold"));
+    }
+
+    @Test
+    public void testReopenKeepsFrequencies() throws IOException {
+        File file = folder.newFile("sketch.bin");
+        FrequencySketchForOffHeap sketch = new FrequencySketchForOffHeap(file);
+        sketch.ensureCapacity(1024);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < i % 7; j++) {
+                sketch.increment(i);
+            }
+        }
+        int[] expected = new int[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = sketch.frequency(i);
+        }
+        sketch.close();
+        assertTrue(sketch.isNotInitialized());
+
+        FrequencySketchForOffHeap reopened = new FrequencySketchForOffHeap(file);
+        reopened.ensureCapacity(1024);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], reopened.frequency(i));
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void testCloseFinishesAgingInProgress() throws IOException {
+        File file = folder.newFile("aging.bin");
+        FrequencySketchForOffHeap sketch = new FrequencySketchForOffHeap(file);
+        sketch.ensureCapacity(1024);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        int increments = 0;
+        while (sketch.getAgingCount() == 0) {
+            sketch.increment(increments++);
+        }
+        //老化刚开始，关闭时应完成老化，重新打开后读到的是减半后的频次
+        assertEquals(7, sketch.frequency("hot"));
+        sketch.close();
+
+        FrequencySketchForOffHeap reopened = new FrequencySketchForOffHeap(file);
+        reopened.ensureCapacity(1024);
+        assertEquals(7, reopened.frequency("hot"));
+        reopened.close();
+    }
+
+    @Test
+    public void testGrowingDiscardsPersistedFrequencies() throws IOException {
+        File file = folder.newFile("grow.bin");
+        FrequencySketchForOffHeap sketch = new FrequencySketchForOffHeap(file);
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        sketch.ensureCapacity(4096);
+        assertEquals(4096, sketch.getTableLength());
+        assertEquals(0, sketch.frequency("key"));
+        sketch.close();
+    }
+}
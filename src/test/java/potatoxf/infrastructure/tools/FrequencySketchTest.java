@@ -0,0 +1,218 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void testAgingHalvesEachCounterSeparately() throws IOException {
+        AtomicLong time = new AtomicLong();
+        FrequencySketch sketch = new FrequencySketch(true, time::get, 100);
+        //每个字节的低位counter为15，高位counter为1，减半时低位counter不能得到相邻counter的低位
+        sketch.readFrom(snapshot(16, 0x1F1F1F1F1F1F1F1FL));
+        time.set(100);
+        //首次出现的元素只记录在门卫中，不会改变表
+        sketch.increment("trigger");
+        long[] table = tableOf(sketch.toByteBuffer(), 16);
+        for (long word : table) {
+            assertEquals(0x0707070707070707L, word);
+        }
+    }
+
+    @Test
+    public void testDoorkeeperAbsorbsFirstOccurrence() throws IOException {
+        FrequencySketch sketch = new FrequencySketch(true);
+        sketch.ensureCapacity(512);
+        sketch.increment("once");
+        //首次出现只记录在门卫中，估计频次仍计为1
+        assertEquals(1, sketch.frequency("once"));
+        assertEquals(0, sketch.frequency("never"));
+        long[] table = tableOf(sketch.toByteBuffer(), 512);
+        for (long word : table) {
+            assertEquals(0L, word);
+        }
+        for (int i = 0; i < 4; i++) {
+            sketch.increment("repeat");
+        }
+        assertEquals(4, sketch.frequency("repeat"));
+    }
+
+    @Test
+    public void testDoorkeeperIsClearedByAging() {
+        AtomicLong time = new AtomicLong();
+        FrequencySketch sketch = new FrequencySketch(true, time::get, 100);
+        sketch.ensureCapacity(512);
+        sketch.increment("once");
+        assertEquals(1, sketch.frequency("once"));
+        time.set(100);
+        sketch.increment("other");
+        assertEquals(0, sketch.frequency("once"));
+    }
+
+    @Test
+    public void testSingleSlotTableDoesNotAgeOnEveryIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(1);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("key");
+        }
+        assertEquals(5, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testAgingBySampleSize() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(64);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(15, sketch.frequency("hot"));
+        //采样大小为10倍表长度，之后的增加会触发老化
+        for (int i = 0; i < 640; i++) {
+            sketch.increment(i);
+        }
+        assertTrue(sketch.frequency("hot") < 15);
+    }
+
+    @Test
+    public void testIncrementalAgingReadsPendingSlotsHalved() {
+        FrequencySketch sketch = new FrequencySketch();
+        //1024个slot需要16次增加才能完成一轮老化
+        sketch.ensureCapacity(1024);
+        for (int i = 0; i < 15; i++) {
+            sketch.increment("hot");
+        }
+        int increments = 0;
+        while (sketch.getAgingCount() == 0) {
+            sketch.increment(increments++);
+        }
+        //老化刚开始，大部分slot尚未减半，读取时仍按减半后的值计算
+        assertEquals(7, sketch.frequency("hot"));
+        for (int i = 0; i < 32; i++) {
+            sketch.increment(-1 - i);
+        }
+        assertEquals(7, sketch.frequency("hot"));
+    }
+
+    @Test
+    public void testAgingByTime() {
+        AtomicLong time = new AtomicLong();
+        FrequencySketch sketch = new FrequencySketch(false, time::get, 100);
+        sketch.ensureCapacity(512);
+        for (int i = 0; i < 12; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(12, sketch.frequency("hot"));
+        time.set(99);
+        sketch.increment("other");
+        assertEquals(12, sketch.frequency("hot"));
+        time.set(100);
+        sketch.increment("other");
+        assertEquals(6, sketch.frequency("hot"));
+    }
+
+    @Test
+    public void testStreamSnapshotRoundTrip() throws IOException {
+        FrequencySketch sketch = populated();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sketch.writeTo(out);
+        FrequencySketch restored = new FrequencySketch();
+        restored.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertSameFrequencies(sketch, restored);
+    }
+
+    @Test
+    public void testBufferSnapshotRoundTrip() throws IOException {
+        FrequencySketch sketch = populated();
+        ByteBuffer buffer = sketch.toByteBuffer();
+        FrequencySketch restored = new FrequencySketch();
+        restored.readFrom(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertSameFrequencies(sketch, restored);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedSnapshot() throws IOException {
+        ByteBuffer buffer = populated().toByteBuffer();
+        buffer.limit(buffer.limit() - 8);
+        new FrequencySketch().readFrom(buffer);
+    }
+
+    @Test
+    public void testMerge() {
+        FrequencySketch left = new FrequencySketch();
+        left.ensureCapacity(512);
+        FrequencySketch right = new FrequencySketch();
+        right.ensureCapacity(512);
+        for (int i = 0; i < 3; i++) {
+            left.increment("key");
+        }
+        for (int i = 0; i < 4; i++) {
+            right.increment("key");
+        }
+        left.merge(right);
+        assertEquals(7, left.frequency("key"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeRejectsDoorkeeperMismatch() {
+        FrequencySketch left = new FrequencySketch(true);
+        left.ensureCapacity(512);
+        FrequencySketch right = new FrequencySketch(false);
+        right.ensureCapacity(512);
+        left.merge(right);
+    }
+
+    private static FrequencySketch populated() {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(1024);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < i % 7; j++) {
+                sketch.increment(i);
+            }
+        }
+        return sketch;
+    }
+
+    private static void assertSameFrequencies(FrequencySketch expected, FrequencySketch actual) {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.frequency(i), actual.frequency(i));
+        }
+    }
+
+    private static ByteBuffer snapshot(int length, long word) {
+        FrequencySketch sketch = new FrequencySketch();
+        sketch.ensureCapacity(length);
+        ByteBuffer buffer = sketch.toByteBuffer();
+        int tableOffset = buffer.limit() - (length << 3);
+        for (int i = 0; i < length; i++) {
+            buffer.putLong(tableOffset + (i << 3), word);
+        }
+        return buffer;
+    }
+
+    private static long[] tableOf(ByteBuffer buffer, int length) {
+        long[] table = new long[length];
+        int tableOffset = buffer.limit() - (length << 3);
+        for (int i = 0; i < length; i++) {
+            table[i] = buffer.getLong(tableOffset + (i << 3));
+        }
+        return table;
+    }
+}
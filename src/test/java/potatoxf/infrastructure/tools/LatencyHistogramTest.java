@@ -0,0 +1,79 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class LatencyHistogramTest {
+    private static final int PRECISION = 5;
+
+    @Test
+    public void testBucketBoundsContainValue() {
+        for (int precision = 1; precision <= 10; precision++) {
+            long[] values = {0, 1, 2, 31, 32, 33, 1000, 1023, 1024, 123456789L, 1L << 40, (1L << 40) + 1, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+            for (long value : values) {
+                int index = LatencyHistogram.indexOf(value, precision);
+                assertTrue(index >= 0 && index < (64 - precision) << precision);
+                assertTrue(LatencyHistogram.lowestValue(index, precision) <= value);
+                assertTrue(LatencyHistogram.highestValue(index, precision) >= value);
+            }
+        }
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        int precision = 3;
+        int buckets = (64 - precision) << precision;
+        assertEquals(0, LatencyHistogram.lowestValue(0, precision));
+        for (int index = 1; index < buckets; index++) {
+            assertEquals(LatencyHistogram.highestValue(index - 1, precision) + 1, LatencyHistogram.lowestValue(index, precision));
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.lowestValue(index, precision), precision));
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValue(index, precision), precision));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(buckets - 1, precision));
+    }
+
+    @Test
+    public void testRelativeError() {
+        int precision = PRECISION;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            int index = LatencyHistogram.indexOf(value, precision);
+            long width = LatencyHistogram.highestValue(index, precision) - LatencyHistogram.lowestValue(index, precision);
+            assertTrue(width <= value >> precision);
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordSuccess(i);
+        }
+        assertEquals(1, histogram.min());
+        assertEquals(1000, histogram.max());
+        assertEquals(500, histogram.percentile(50), 500 >> PRECISION);
+        assertEquals(990, histogram.percentile(99), 990 >> PRECISION);
+        assertEquals(1000, histogram.percentile(100));
+    }
+
+    @Test
+    public void testSnapshotAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.recordSuccess(10);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshotAndReset();
+        assertEquals(100, snapshot.count());
+        assertEquals(10, snapshot.percentile(50));
+        assertEquals(0, histogram.snapshot().count());
+        histogram.merge(snapshot);
+        assertEquals(100, histogram.snapshot().count());
+    }
+}
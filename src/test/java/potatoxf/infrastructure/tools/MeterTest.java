@@ -0,0 +1,65 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class MeterTest {
+    private static final double DELTA = 1e-9;
+    private final AtomicLong time = new AtomicLong();
+
+    @Test
+    public void testRatesDecayWhileIdle() {
+        Meter meter = new Meter(CounterForOperate.of(), time::get);
+        meter.mark(100);
+        assertEquals(0.0d, meter.oneMinuteRate(), DELTA);
+        time.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        //第一次衰减时速率初始化为该周期的瞬时速率
+        assertEquals(20.0d, meter.oneMinuteRate(), DELTA);
+        assertEquals(20.0d, meter.fiveMinuteRate(), DELTA);
+        assertEquals(20.0d, meter.fifteenMinuteRate(), DELTA);
+        //空闲5分钟，衰减60次
+        time.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertEquals(20.0d * Math.exp(-5), meter.oneMinuteRate(), 1e-6);
+        assertEquals(20.0d * Math.exp(-1), meter.fiveMinuteRate(), 1e-6);
+        assertEquals(20.0d * Math.exp(-1.0d / 3), meter.fifteenMinuteRate(), 1e-6);
+        assertEquals(100, meter.count());
+    }
+
+    @Test
+    public void testEventsBetweenTicksAreCountedOnce() {
+        Meter meter = new Meter(CounterForOperate.of(), time::get);
+        for (int i = 0; i < 10; i++) {
+            meter.mark(5);
+            time.addAndGet(TimeUnit.SECONDS.toNanos(5));
+            meter.oneMinuteRate();
+        }
+        //每个周期5次事件，即每秒1次
+        assertEquals(1.0d, meter.oneMinuteRate(), DELTA);
+        assertEquals(1.0d, meter.fifteenMinuteRate(), DELTA);
+        assertEquals(1.0d, meter.meanRate(), DELTA);
+    }
+
+    @Test
+    public void testRecordsReachTheWrappedCounter() {
+        CounterForOperate counter = CounterForOperate.of();
+        Meter meter = new Meter(counter, time::get);
+        meter.recordSuccess(10);
+        meter.recordFailure(20);
+        meter.mark(3);
+        assertEquals(5, meter.count());
+        assertEquals(1, counter.successCount());
+        assertEquals(1, counter.failureCount());
+        assertEquals(1, meter.successCount());
+        assertEquals(30, meter.totalTimeCount());
+    }
+}
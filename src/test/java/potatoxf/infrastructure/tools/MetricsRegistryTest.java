@@ -0,0 +1,99 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class MetricsRegistryTest {
+
+    @Test
+    public void testSameNameReturnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        CounterForInquire counter = registry.inquire("cache", "name", "users", "region", "east");
+        //标签的顺序不影响名称
+        assertSame(counter, registry.inquire("cache", "region", "east", "name", "users"));
+        assertEquals(1, registry.size());
+        assertSame(counter, registry.remove("cache", "name", "users", "region", "east"));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testPrometheusOutput() {
+        MetricsRegistry registry = new MetricsRegistry();
+        CounterForInquire counter = registry.inquire("cache.lookup", "region", "a\"b", "name", "users");
+        counter.recordHit(3);
+        counter.recordMiss(1);
+        registry.gauge("pool.size", () -> 2.5);
+        registry.gauge("pool.ratio", () -> Double.NaN);
+        String text = registry.snapshot().toPrometheus();
+        //名称中的非法字符替换为下划线，标签按键排序且转义引号
+        assertTrue(text, text.contains("# TYPE cache_lookup_hit_total counter\n"
+                + "cache_lookup_hit_total{name=\"users\",region=\"a\\\"b\"} 3\n"));
+        assertTrue(text, text.contains("# TYPE cache_lookup_miss_total counter\n"
+                + "cache_lookup_miss_total{name=\"users\",region=\"a\\\"b\"} 1\n"));
+        assertTrue(text, text.contains("# TYPE pool_size gauge\npool_size 2.5\n"));
+        assertTrue(text, text.contains("pool_ratio NaN\n"));
+    }
+
+    @Test
+    public void testPrometheusHistogramIsSummary() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LatencyHistogram histogram = registry.histogram("rpc", "method", "get");
+        for (int i = 0; i < 10; i++) {
+            histogram.recordSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        String text = registry.snapshot().toPrometheus();
+        //同一个summary族只有一行TYPE，分位数作为标签
+        assertEquals(text.indexOf("# TYPE rpc summary"), text.lastIndexOf("# TYPE rpc summary"));
+        assertTrue(text, text.contains("rpc_count{method=\"get\"} 10\n"));
+        assertTrue(text, text.contains("rpc{method=\"get\",quantile=\"0.99\"} "));
+        assertTrue(text, text.contains("# TYPE rpc_max gauge\n"));
+    }
+
+    @Test
+    public void testJsonOutput() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.inquire("cache", "name", "us\"ers").recordHit(2);
+        registry.gauge("ratio", () -> Double.POSITIVE_INFINITY);
+        MetricsSnapshot snapshot = registry.snapshot();
+        String json = snapshot.toJson();
+        assertTrue(json, json.startsWith("{\"timestamp\":" + snapshot.timestamp() + ",\"metrics\":["));
+        //条目按名称排序，非有限数值输出为null
+        assertTrue(json, json.endsWith("[{\"name\":\"cache\",\"tags\":{\"name\":\"us\\\"ers\"},\"kind\":\"inquire\","
+                + "\"values\":{\"hit\":2,\"miss\":0}},"
+                + "{\"name\":\"ratio\",\"tags\":{},\"kind\":\"gauge\",\"values\":{\"value\":null}}]}"));
+        assertEquals(2, snapshot.entries().size());
+        assertEquals(MetricsSnapshot.Kind.INQUIRE, snapshot.entries().get(0).kind());
+        assertEquals(2, snapshot.entries().get(0).value("hit"), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDifferentKind() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.inquire("requests");
+        registry.meter("requests", "region", "east");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsSanitizedCollision() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.meter("http.requests");
+        //转换为Prometheus格式后与已有名称相同
+        registry.meter("http-requests");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnsupportedMetric() {
+        new MetricsRegistry().register("object", new Object());
+    }
+}
@@ -0,0 +1,72 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class RollingWindowTest {
+    private static final double DELTA = 1e-9;
+    private final AtomicLong time = new AtomicLong();
+
+    @Test
+    public void testInquireCountsOnlyTheWindow() {
+        CounterForInquireForRolling counter = new CounterForInquireForRolling(time::get, 10, TimeUnit.SECONDS, 10);
+        counter.recordHit(3);
+        counter.recordMiss(1);
+        assertEquals(0.75d, counter.hitRate(), DELTA);
+        advanceSeconds(5);
+        counter.recordHit(1);
+        assertEquals(4, counter.hitCount());
+        assertEquals(1, counter.missCount());
+        //已过5秒，共5次查询
+        assertEquals(1.0d, counter.throughput(), DELTA);
+        //第一个桶滑出窗口
+        advanceSeconds(5.5);
+        assertEquals(1, counter.hitCount());
+        assertEquals(0, counter.missCount());
+        //空闲超过一个窗口后全部为零，没有后台轮换
+        advanceSeconds(30);
+        assertEquals(0, counter.hitCount());
+        assertEquals(1.0d, counter.hitRate(), DELTA);
+        assertEquals(0.0d, counter.throughput(), DELTA);
+    }
+
+    @Test
+    public void testOperateRatesOverTheWindow() {
+        CounterForOperateForRolling counter = new CounterForOperateForRolling(time::get, 1, TimeUnit.MINUTES, 6);
+        for (int i = 0; i < 9; i++) {
+            counter.recordSuccess(10);
+        }
+        counter.recordFailure(110);
+        assertEquals(9, counter.successCount());
+        assertEquals(90, counter.successTimeCount());
+        assertEquals(1, counter.failureCount());
+        assertEquals(110, counter.failureTimeCount());
+        assertEquals(0.1d, counter.failureRate(), DELTA);
+        assertEquals(20.0d, counter.averageTime(), DELTA);
+        advanceSeconds(61);
+        counter.recordSuccess(30);
+        assertEquals(1, counter.successCount());
+        assertEquals(0, counter.failureCount());
+        assertEquals(0.0d, counter.failureRate(), DELTA);
+        assertEquals(30.0d, counter.averageTime(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNoBuckets() {
+        new CounterForInquireForRolling(time::get, 10, TimeUnit.SECONDS, 0);
+    }
+
+    private void advanceSeconds(double seconds) {
+        time.addAndGet((long) (seconds * 1e9));
+    }
+}
@@ -0,0 +1,68 @@
+package potatoxf.infrastructure.tools;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p/>
+ * Create Time:2026-10-17
+ *
+ * @author potatoxf
+ */
+public class TopKTest {
+
+    @Test
+    public void testTopIsOrderedByCount() {
+        TopK<String> topK = new TopK<>(3, 1024);
+        offer(topK, "a", 5);
+        offer(topK, "b", 9);
+        offer(topK, "c", 2);
+        offer(topK, "d", 1);
+        List<TopK.Entry<String>> top = topK.top();
+        assertEquals(3, top.size());
+        assertEquals("b", top.get(0).getElement());
+        assertEquals(9, top.get(0).getCount());
+        assertEquals("a", top.get(1).getElement());
+        assertEquals("c", top.get(2).getElement());
+        assertEquals(0, topK.count("d"));
+    }
+
+    @Test
+    public void testCountsHalveWhenSketchAges() {
+        TopK<Integer> topK = new TopK<>(4, 64);
+        offer(topK, -1, 12);
+        assertEquals(12, topK.count(-1));
+        //采样大小为640，之后不同元素的增加会使频次估计器老化
+        for (int i = 0; i < 640; i++) {
+            topK.offer(i);
+        }
+        assertTrue(topK.count(-1) < 12);
+    }
+
+    @Test
+    public void testFormerlyHotElementIsReplaced() {
+        TopK<Integer> topK = new TopK<>(2, 64);
+        offer(topK, -1, 200);
+        //热点转移到新的元素上，新热点的总次数少于旧热点，旧的热点只有随老化衰减才会被替换
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 64; i++) {
+                topK.offer(i);
+            }
+            offer(topK, -2, 3);
+            offer(topK, -3, 3);
+        }
+        List<TopK.Entry<Integer>> top = topK.top();
+        assertFalse(top.toString(), top.stream().anyMatch(entry -> entry.getElement() == -1));
+    }
+
+    private static <E> void offer(TopK<E> topK, E element, int times) {
+        for (int i = 0; i < times; i++) {
+            topK.offer(element);
+        }
+    }
+}